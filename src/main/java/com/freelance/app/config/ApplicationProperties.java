@@ -1,6 +1,9 @@
 package com.freelance.app.config;
 
+import java.time.Duration;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Properties specific to Freelance App.
@@ -19,6 +22,18 @@ public class ApplicationProperties {
 
     private MinioConfiguration minio;
 
+    private final Renditions renditions = new Renditions();
+
+    private final BlobCache blobCache = new BlobCache();
+
+    private final Chat chat = new Chat();
+
+    private final ProfileCache profileCache = new ProfileCache();
+
+    private final JwtCache jwtCache = new JwtCache();
+
+    private final PasswordHashing passwordHashing = new PasswordHashing();
+
     public MinioConfiguration getMinio() {
         return minio;
     }
@@ -27,12 +42,40 @@ public class ApplicationProperties {
         this.minio = minio;
     }
 
+    public Renditions getRenditions() {
+        return renditions;
+    }
+
+    public BlobCache getBlobCache() {
+        return blobCache;
+    }
+
+    public Chat getChat() {
+        return chat;
+    }
+
+    public ProfileCache getProfileCache() {
+        return profileCache;
+    }
+
+    public JwtCache getJwtCache() {
+        return jwtCache;
+    }
+
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+
     public static class MinioConfiguration {
 
         private String url;
         private String accessKey;
         private String secretKey;
         private String bucketName;
+        private String region = "us-east-1";
+        private int presignedUrlExpirySeconds = 3600;
+        private DataSize maxUploadSize = DataSize.ofMegabytes(512);
+        private DataSize uploadPartSize = DataSize.ofMegabytes(10);
 
         public String getUrl() {
             return url;
@@ -65,5 +108,282 @@ public class ApplicationProperties {
         public void setBucketName(String bucketName) {
             this.bucketName = bucketName;
         }
+
+        public String getRegion() {
+            return region;
+        }
+
+        public void setRegion(String region) {
+            this.region = region;
+        }
+
+        public int getPresignedUrlExpirySeconds() {
+            return presignedUrlExpirySeconds;
+        }
+
+        public void setPresignedUrlExpirySeconds(int presignedUrlExpirySeconds) {
+            this.presignedUrlExpirySeconds = presignedUrlExpirySeconds;
+        }
+
+        public DataSize getMaxUploadSize() {
+            return maxUploadSize;
+        }
+
+        public void setMaxUploadSize(DataSize maxUploadSize) {
+            this.maxUploadSize = maxUploadSize;
+        }
+
+        public DataSize getUploadPartSize() {
+            return uploadPartSize;
+        }
+
+        public void setUploadPartSize(DataSize uploadPartSize) {
+            this.uploadPartSize = uploadPartSize;
+        }
+    }
+
+    public static class Renditions {
+
+        private List<Integer> widths = List.of(160, 480, 1080);
+        private int workerThreads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        private int queueCapacity = 256;
+        private long maxPixels = 40_000_000;
+
+        public List<Integer> getWidths() {
+            return widths;
+        }
+
+        public void setWidths(List<Integer> widths) {
+            this.widths = widths;
+        }
+
+        public int getWorkerThreads() {
+            return workerThreads;
+        }
+
+        public void setWorkerThreads(int workerThreads) {
+            this.workerThreads = workerThreads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getMaxPixels() {
+            return maxPixels;
+        }
+
+        public void setMaxPixels(long maxPixels) {
+            this.maxPixels = maxPixels;
+        }
+    }
+
+    public static class BlobCache {
+
+        private boolean enabled = true;
+        private String directory = System.getProperty("java.io.tmpdir") + "/freelance-app-blob-cache";
+        private DataSize maxSize = DataSize.ofGigabytes(1);
+        private DataSize maxEntrySize = DataSize.ofMegabytes(32);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public DataSize getMaxEntrySize() {
+            return maxEntrySize;
+        }
+
+        public void setMaxEntrySize(DataSize maxEntrySize) {
+            this.maxEntrySize = maxEntrySize;
+        }
+    }
+
+    public static class Chat {
+
+        private String broadcaster = "local";
+        private int sessionBufferSize = 256;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+        private int writeBatchSize = 64;
+        private Duration writeBatchDelay = Duration.ofMillis(5);
+        private int replayBufferSize = 128;
+        private Duration replayRetention = Duration.ofMinutes(2);
+        private Duration typingThrottle = Duration.ofSeconds(2);
+
+        public enum OverflowPolicy {
+            DROP_OLDEST,
+            DISCONNECT,
+        }
+
+        public String getBroadcaster() {
+            return broadcaster;
+        }
+
+        public void setBroadcaster(String broadcaster) {
+            this.broadcaster = broadcaster;
+        }
+
+        public int getSessionBufferSize() {
+            return sessionBufferSize;
+        }
+
+        public void setSessionBufferSize(int sessionBufferSize) {
+            this.sessionBufferSize = sessionBufferSize;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public int getWriteBatchSize() {
+            return writeBatchSize;
+        }
+
+        public void setWriteBatchSize(int writeBatchSize) {
+            this.writeBatchSize = writeBatchSize;
+        }
+
+        public Duration getWriteBatchDelay() {
+            return writeBatchDelay;
+        }
+
+        public void setWriteBatchDelay(Duration writeBatchDelay) {
+            this.writeBatchDelay = writeBatchDelay;
+        }
+
+        public int getReplayBufferSize() {
+            return replayBufferSize;
+        }
+
+        public void setReplayBufferSize(int replayBufferSize) {
+            this.replayBufferSize = replayBufferSize;
+        }
+
+        public Duration getReplayRetention() {
+            return replayRetention;
+        }
+
+        public void setReplayRetention(Duration replayRetention) {
+            this.replayRetention = replayRetention;
+        }
+
+        public Duration getTypingThrottle() {
+            return typingThrottle;
+        }
+
+        public void setTypingThrottle(Duration typingThrottle) {
+            this.typingThrottle = typingThrottle;
+        }
+    }
+
+    public static class ProfileCache {
+
+        private int maxEntries = 10_000;
+        private Duration ttl = Duration.ofMinutes(10);
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    public static class JwtCache {
+
+        private int maxEntries = 10_000;
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+
+    public static class PasswordHashing {
+
+        private int threads = Runtime.getRuntime().availableProcessors();
+        private int queueSize = 64;
+        private int loginAttemptsPerMinute = 10;
+        private int ipAttemptsPerMinute = 100;
+        private List<String> trustedProxies = List.of();
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public void setQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+        }
+
+        public int getLoginAttemptsPerMinute() {
+            return loginAttemptsPerMinute;
+        }
+
+        public void setLoginAttemptsPerMinute(int loginAttemptsPerMinute) {
+            this.loginAttemptsPerMinute = loginAttemptsPerMinute;
+        }
+
+        public int getIpAttemptsPerMinute() {
+            return ipAttemptsPerMinute;
+        }
+
+        public void setIpAttemptsPerMinute(int ipAttemptsPerMinute) {
+            this.ipAttemptsPerMinute = ipAttemptsPerMinute;
+        }
+
+        public List<String> getTrustedProxies() {
+            return trustedProxies;
+        }
+
+        public void setTrustedProxies(List<String> trustedProxies) {
+            this.trustedProxies = trustedProxies;
+        }
     }
 }
@@ -1,6 +1,7 @@
 package com.freelance.app.config;
 
-import io.minio.MinioClient;
+import com.freelance.app.util.ReactiveMinioClient;
+import io.minio.MinioAsyncClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -14,10 +15,13 @@ public class MinioConfiguration {
     }
 
     @Bean
-    public MinioClient minioClient() {
-        return MinioClient.builder()
-            .endpoint(applicationProperties.getMinio().getUrl())
-            .credentials(applicationProperties.getMinio().getAccessKey(), applicationProperties.getMinio().getSecretKey())
-            .build();
+    public ReactiveMinioClient minioClient() {
+        return new ReactiveMinioClient(
+            MinioAsyncClient.builder()
+                .endpoint(applicationProperties.getMinio().getUrl())
+                .region(applicationProperties.getMinio().getRegion())
+                .credentials(applicationProperties.getMinio().getAccessKey(), applicationProperties.getMinio().getSecretKey())
+                .build()
+        );
     }
 }
@@ -4,6 +4,8 @@ import static org.springframework.security.config.Customizer.withDefaults;
 import static org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers.pathMatchers;
 
 import com.freelance.app.security.AuthoritiesConstants;
+import com.freelance.app.security.PasswordHashing;
+import com.freelance.app.web.filter.CurrentProfileWebFilter;
 import com.freelance.app.web.filter.SpaWebFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -38,12 +40,16 @@ public class SecurityConfiguration {
     }
 
     @Bean
-    public ReactiveAuthenticationManager reactiveAuthenticationManager(ReactiveUserDetailsService userDetailsService) {
+    public ReactiveAuthenticationManager reactiveAuthenticationManager(
+        ReactiveUserDetailsService userDetailsService,
+        PasswordHashing passwordHashing
+    ) {
         UserDetailsRepositoryReactiveAuthenticationManager authenticationManager = new UserDetailsRepositoryReactiveAuthenticationManager(
             userDetailsService
         );
         authenticationManager.setPasswordEncoder(passwordEncoder());
-        return authenticationManager;
+        authenticationManager.setScheduler(passwordHashing.scheduler());
+        return authentication -> passwordHashing.admit(authenticationManager.authenticate(authentication));
     }
 
     @Bean
@@ -57,6 +63,7 @@ public class SecurityConfiguration {
             .cors(withDefaults())
             .csrf(ServerHttpSecurity.CsrfSpec::disable)
             .addFilterAfter(new SpaWebFilter(), SecurityWebFiltersOrder.HTTPS_REDIRECT)
+            .addFilterAfter(new CurrentProfileWebFilter(), SecurityWebFiltersOrder.AUTHENTICATION)
             .headers(headers ->
                 headers
                     .contentSecurityPolicy(csp -> csp.policyDirectives(jHipsterProperties.getSecurity().getContentSecurityPolicy()))
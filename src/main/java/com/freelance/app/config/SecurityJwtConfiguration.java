@@ -3,8 +3,10 @@ package com.freelance.app.config;
 import static com.freelance.app.security.SecurityUtils.JWT_ALGORITHM;
 
 import com.freelance.app.management.SecurityMetersService;
+import com.freelance.app.security.CachingJwtDecoder;
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import com.nimbusds.jose.util.Base64;
+import io.micrometer.core.instrument.MeterRegistry;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import org.slf4j.Logger;
@@ -26,9 +28,13 @@ public class SecurityJwtConfiguration {
     private String jwtKey;
 
     @Bean
-    public ReactiveJwtDecoder jwtDecoder(SecurityMetersService metersService) {
+    public ReactiveJwtDecoder jwtDecoder(
+        SecurityMetersService metersService,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
         NimbusReactiveJwtDecoder jwtDecoder = NimbusReactiveJwtDecoder.withSecretKey(getSecretKey()).macAlgorithm(JWT_ALGORITHM).build();
-        return token -> {
+        ReactiveJwtDecoder verifyingDecoder = token -> {
             try {
                 return jwtDecoder
                     .decode(token)
@@ -57,6 +63,7 @@ public class SecurityJwtConfiguration {
                 throw e;
             }
         };
+        return new CachingJwtDecoder(verifyingDecoder, applicationProperties.getJwtCache().getMaxEntries(), registry);
     }
 
     @Bean
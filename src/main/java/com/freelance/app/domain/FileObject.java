@@ -46,6 +46,9 @@ public class FileObject extends AbstractAuditingEntity<Long> implements Serializ
     @Column("duration_seconds")
     private Integer durationSeconds;
 
+    @Column("ref_count")
+    private Integer refCount;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -139,6 +142,19 @@ public class FileObject extends AbstractAuditingEntity<Long> implements Serializ
         this.durationSeconds = durationSeconds;
     }
 
+    public Integer getRefCount() {
+        return this.refCount;
+    }
+
+    public FileObject refCount(Integer refCount) {
+        this.setRefCount(refCount);
+        return this;
+    }
+
+    public void setRefCount(Integer refCount) {
+        this.refCount = refCount;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -168,6 +184,7 @@ public class FileObject extends AbstractAuditingEntity<Long> implements Serializ
             ", fileSize=" + getFileSize() +
             ", checksum='" + getChecksum() + "'" +
             ", durationSeconds=" + getDurationSeconds() +
+            ", refCount=" + getRefCount() +
             ", createdDate='" + getCreatedDate() + "'" +
             ", lastModifiedDate='" + getLastModifiedDate() + "'" +
             ", createdBy='" + getCreatedBy() + "'" +
@@ -0,0 +1,188 @@
+package com.freelance.app.domain;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.io.Serial;
+import java.io.Serializable;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A fixed-size variant of an image {@link FileObject}, stored next to the original in MinIO.
+ */
+@Table("file_rendition")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class FileRendition implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column("id")
+    private Long id;
+
+    @NotNull(message = "must not be null")
+    @Column("file_id")
+    private Long fileId;
+
+    @NotNull(message = "must not be null")
+    @Column("width")
+    private Integer width;
+
+    @NotNull(message = "must not be null")
+    @Column("height")
+    private Integer height;
+
+    @NotNull(message = "must not be null")
+    @Size(max = 80)
+    @Column("bucket")
+    private String bucket;
+
+    @NotNull(message = "must not be null")
+    @Size(max = 255)
+    @Column("object_key")
+    private String objectKey;
+
+    @Size(max = 120)
+    @Column("content_type")
+    private String contentType;
+
+    @Column("file_size")
+    private Long fileSize;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public FileRendition id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getFileId() {
+        return this.fileId;
+    }
+
+    public FileRendition fileId(Long fileId) {
+        this.setFileId(fileId);
+        return this;
+    }
+
+    public void setFileId(Long fileId) {
+        this.fileId = fileId;
+    }
+
+    public Integer getWidth() {
+        return this.width;
+    }
+
+    public FileRendition width(Integer width) {
+        this.setWidth(width);
+        return this;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public Integer getHeight() {
+        return this.height;
+    }
+
+    public FileRendition height(Integer height) {
+        this.setHeight(height);
+        return this;
+    }
+
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+
+    public String getBucket() {
+        return this.bucket;
+    }
+
+    public FileRendition bucket(String bucket) {
+        this.setBucket(bucket);
+        return this;
+    }
+
+    public void setBucket(String bucket) {
+        this.bucket = bucket;
+    }
+
+    public String getObjectKey() {
+        return this.objectKey;
+    }
+
+    public FileRendition objectKey(String objectKey) {
+        this.setObjectKey(objectKey);
+        return this;
+    }
+
+    public void setObjectKey(String objectKey) {
+        this.objectKey = objectKey;
+    }
+
+    public String getContentType() {
+        return this.contentType;
+    }
+
+    public FileRendition contentType(String contentType) {
+        this.setContentType(contentType);
+        return this;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Long getFileSize() {
+        return this.fileSize;
+    }
+
+    public FileRendition fileSize(Long fileSize) {
+        this.setFileSize(fileSize);
+        return this;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FileRendition)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((FileRendition) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "FileRendition{" +
+            "id=" + getId() +
+            ", fileId=" + getFileId() +
+            ", width=" + getWidth() +
+            ", height=" + getHeight() +
+            ", bucket='" + getBucket() + "'" +
+            ", objectKey='" + getObjectKey() + "'" +
+            ", contentType='" + getContentType() + "'" +
+            ", fileSize=" + getFileSize() +
+            "}";
+    }
+}
@@ -0,0 +1,13 @@
+package com.freelance.app.exception;
+
+import java.io.Serial;
+
+public class TooManyRequestsException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public TooManyRequestsException() {
+        super("Too many requests, try again later");
+    }
+}
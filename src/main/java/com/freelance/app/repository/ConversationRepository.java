@@ -2,6 +2,9 @@ package com.freelance.app.repository;
 
 import com.freelance.app.domain.Conversation;
 import com.freelance.app.domain.criteria.ConversationCriteria;
+import com.freelance.app.service.dto.ConversationDTO;
+import com.freelance.app.service.dto.ReadMarkDTO;
+import java.time.Instant;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
@@ -36,13 +39,27 @@ public interface ConversationRepository extends ReactiveCrudRepository<Conversat
     @Query(
         """
         SELECT * FROM conversation
-                WHERE (participant_a_id = :participantAId AND participant_b_id = :participantBId)
-                   OR (participant_a_id = :participantBId AND participant_b_id = :participantAId)
-                LIMIT 1
+        WHERE LEAST(participant_a_id, participant_b_id) = LEAST(:participantAId, :participantBId)
+          AND GREATEST(participant_a_id, participant_b_id) = GREATEST(:participantAId, :participantBId)
         """
     )
     Mono<Conversation> findBetween(Long participantAId, Long participantBId);
 
+    /**
+     * Create the conversation between two participants unless it exists already.
+     *
+     * @return the created conversation, or empty if the participants already had one.
+     */
+    @Query(
+        """
+        INSERT INTO conversation (created_at, participant_a_id, participant_b_id)
+        VALUES (:createdAt, :participantAId, :participantBId)
+        ON CONFLICT (LEAST(participant_a_id, participant_b_id), GREATEST(participant_a_id, participant_b_id)) DO NOTHING
+        RETURNING *
+        """
+    )
+    Mono<Conversation> insertIfAbsent(Long participantAId, Long participantBId, Instant createdAt);
+
     @Query(
         """
         SELECT * FROM conversation c
@@ -50,6 +67,19 @@ public interface ConversationRepository extends ReactiveCrudRepository<Conversat
         """
     )
     Flux<Conversation> findConversations(Long participantId);
+
+    /**
+     * Get those of the given profiles that have a conversation with a participant.
+     */
+    @Query(
+        """
+        SELECT CASE WHEN c.participant_a_id = :participantId THEN c.participant_b_id ELSE c.participant_a_id END
+        FROM conversation c
+        WHERE (c.participant_a_id = :participantId AND c.participant_b_id = ANY(:profileIds))
+           OR (c.participant_b_id = :participantId AND c.participant_a_id = ANY(:profileIds))
+        """
+    )
+    Flux<Long> findPartnersAmong(Long participantId, Long[] profileIds);
 }
 
 interface ConversationRepositoryInternal {
@@ -64,4 +94,8 @@ interface ConversationRepositoryInternal {
     Flux<Conversation> findByCriteria(ConversationCriteria criteria, Pageable pageable);
 
     Mono<Long> countByCriteria(ConversationCriteria criteria);
+
+    Flux<ConversationDTO> findInbox(Long profileId);
+
+    Flux<ReadMarkDTO> markRead(Long[] profileIds, Long[] conversationIds, Long[] messageIds);
 }
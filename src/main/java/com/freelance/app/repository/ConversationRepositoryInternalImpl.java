@@ -8,8 +8,11 @@ import com.freelance.app.repository.rowmapper.OrderRowMapper;
 import com.freelance.app.repository.rowmapper.ProfileRowMapper;
 import com.freelance.app.repository.sqlhelper.ConversationSqlHelper;
 import com.freelance.app.repository.sqlhelper.OrderSqlHelper;
+import com.freelance.app.service.dto.ConversationDTO;
+import com.freelance.app.service.dto.ReadMarkDTO;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import org.jetbrains.annotations.NotNull;
@@ -104,6 +107,120 @@ class ConversationRepositoryInternalImpl extends SimpleR2dbcRepository<Conversat
         return super.save(entity);
     }
 
+    /**
+     * Get the conversations of a profile, most recent first. Everything comes from the inbox columns of the
+     * conversation, the messages are only joined by primary key.
+     * <p>
+     * Each side of the union is read in order from its participant index and the two are merged, an {@code OR} of the
+     * participants would be read with a bitmap scan and sorted.
+     */
+    @Override
+    public Flux<ConversationDTO> findInbox(Long profileId) {
+        return db
+            .sql(
+                """
+                SELECT c.id, m.body, c.last_message_at,
+                    CASE WHEN c.participant_a_id = :profileId THEN c.participant_a_unread_count ELSE c.participant_b_unread_count END
+                        AS unread_count,
+                    TRIM(CONCAT(TRIM(p.first_name), ' ', TRIM(p.last_name))) AS receiver_name
+                FROM (
+                    SELECT * FROM conversation WHERE participant_a_id = :profileId
+                    UNION ALL
+                    SELECT * FROM conversation WHERE participant_b_id = :profileId AND participant_a_id <> :profileId
+                ) c
+                LEFT JOIN message m ON m.id = c.last_message_id
+                LEFT JOIN profile p
+                    ON p.id = CASE WHEN c.participant_a_id = :profileId THEN c.participant_b_id ELSE c.participant_a_id END
+                ORDER BY c.last_message_at DESC NULLS LAST, c.id DESC
+                """
+            )
+            .bind("profileId", profileId)
+            .map((row, rowMetadata) ->
+                new ConversationDTO(
+                    row.get("id", Long.class),
+                    row.get("body", String.class),
+                    row.get("last_message_at", Instant.class),
+                    row.get("unread_count", Integer.class),
+                    row.get("receiver_name", String.class)
+                )
+            )
+            .all();
+    }
+
+    /**
+     * Move the read marks of several participants, the arrays hold one read mark each. A mark never moves back nor past
+     * the last message of the conversation, and the unread count of the participant is recounted from the messages after
+     * it. The conversations are locked in id order first, as the message inserts do.
+     *
+     * @return the read marks of the participants of the updated conversations.
+     */
+    @Override
+    public Flux<ReadMarkDTO> markRead(Long[] profileIds, Long[] conversationIds, Long[] messageIds) {
+        return db
+            .sql(
+                """
+                WITH locked AS MATERIALIZED (
+                    -- in id order, concurrent flushes touching the same conversations cannot deadlock
+                    SELECT id, participant_a_id, participant_b_id, last_message_id,
+                        participant_a_last_read_message_id, participant_b_last_read_message_id
+                    FROM conversation
+                    WHERE id = ANY(CAST(:conversationIds AS bigint[])) AND last_message_id IS NOT NULL
+                    ORDER BY id
+                    FOR NO KEY UPDATE
+                )
+                UPDATE conversation c
+                SET participant_a_last_read_message_id = GREATEST(c.participant_a_last_read_message_id, s.read_a),
+                    participant_b_last_read_message_id = GREATEST(c.participant_b_last_read_message_id, s.read_b),
+                    participant_a_unread_count = CASE WHEN s.read_a IS NULL THEN c.participant_a_unread_count ELSE (
+                        SELECT COUNT(*) FROM message m
+                        WHERE m.conversation_id = c.id AND m.receiver_id = c.participant_a_id
+                          AND m.id > GREATEST(c.participant_a_last_read_message_id, s.read_a)
+                    ) END,
+                    participant_b_unread_count = CASE WHEN s.read_b IS NULL THEN c.participant_b_unread_count ELSE (
+                        SELECT COUNT(*) FROM message m
+                        WHERE m.conversation_id = c.id AND m.receiver_id = c.participant_b_id
+                          AND m.id > GREATEST(c.participant_b_last_read_message_id, s.read_b)
+                    ) END
+                FROM (
+                    SELECT p.id AS conversation_id,
+                        MAX(LEAST(r.message_id, p.last_message_id)) FILTER (WHERE r.profile_id = p.participant_a_id) AS read_a,
+                        MAX(LEAST(r.message_id, p.last_message_id)) FILTER (WHERE r.profile_id = p.participant_b_id) AS read_b,
+                        p.participant_a_last_read_message_id AS previous_a,
+                        p.participant_b_last_read_message_id AS previous_b
+                    FROM unnest(CAST(:profileIds AS bigint[]), CAST(:conversationIds AS bigint[]), CAST(:messageIds AS bigint[]))
+                        AS r(profile_id, conversation_id, message_id)
+                    JOIN locked p ON p.id = r.conversation_id
+                    GROUP BY p.id, p.participant_a_last_read_message_id, p.participant_b_last_read_message_id
+                ) s
+                WHERE c.id = s.conversation_id AND (s.read_a IS NOT NULL OR s.read_b IS NOT NULL)
+                RETURNING c.id, c.participant_a_id, c.participant_b_id,
+                    c.participant_a_last_read_message_id AS read_a, c.participant_b_last_read_message_id AS read_b,
+                    c.participant_a_last_read_message_id IS DISTINCT FROM s.previous_a AS moved_a,
+                    c.participant_b_last_read_message_id IS DISTINCT FROM s.previous_b AS moved_b
+                """
+            )
+            .bind("profileIds", profileIds)
+            .bind("conversationIds", conversationIds)
+            .bind("messageIds", messageIds)
+            .map((row, rowMetadata) -> {
+                Long id = row.get("id", Long.class);
+                Long a = row.get("participant_a_id", Long.class);
+                Long b = row.get("participant_b_id", Long.class);
+                Long readA = row.get("read_a", Long.class);
+                Long readB = row.get("read_b", Long.class);
+                List<ReadMarkDTO> marks = new ArrayList<>(2);
+                if (readA != null) {
+                    marks.add(new ReadMarkDTO(id, a, b, readA, Boolean.TRUE.equals(row.get("moved_a", Boolean.class))));
+                }
+                if (readB != null) {
+                    marks.add(new ReadMarkDTO(id, b, a, readB, Boolean.TRUE.equals(row.get("moved_b", Boolean.class))));
+                }
+                return marks;
+            })
+            .all()
+            .flatMapIterable(marks -> marks);
+    }
+
     @Override
     public Flux<Conversation> findByCriteria(ConversationCriteria conversationCriteria, Pageable page) {
         return createQuery(page, buildConditions(conversationCriteria)).all();
@@ -4,6 +4,7 @@ import com.freelance.app.domain.FileObject;
 import com.freelance.app.domain.criteria.FileObjectCriteria;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
@@ -31,6 +32,52 @@ public interface FileObjectRepository extends ReactiveCrudRepository<FileObject,
     @Override
     @NotNull
     Mono<Void> deleteById(@NotNull Long id);
+
+    @Query("SELECT * FROM file_object WHERE id = ANY(:ids)")
+    Flux<FileObject> findAllByIds(Long[] ids);
+
+    /**
+     * Find a file that may be read by a profile. Offer media and profile pictures can be read by everyone, a
+     * verification photo only by the profile that sent it and by administrators.
+     *
+     * @param profileId the profile of the reader, {@code null} if it has none.
+     * @param admin whether the reader is an administrator.
+     * @return the file, or empty if there is none the reader may read.
+     */
+    @Query(
+        "SELECT f.* FROM file_object f WHERE f.id = :id AND (" +
+        "EXISTS (SELECT 1 FROM offer_media m WHERE m.file_id = f.id) " +
+        "OR EXISTS (SELECT 1 FROM profile p WHERE p.profile_picture_id = f.id) " +
+        "OR EXISTS (SELECT 1 FROM verification_request v WHERE v.file_object_id = f.id AND (:admin OR v.profile_id = :profileId)))"
+    )
+    Mono<FileObject> findReadableById(Long id, Long profileId, boolean admin);
+
+    /**
+     * Take one more reference on a stored object with the given content, if there is one.
+     *
+     * @return the referenced file object, or empty if no live object has this checksum.
+     */
+    @Query(
+        "UPDATE file_object SET ref_count = ref_count + 1 WHERE ref_count > 0 AND id = (" +
+        "SELECT id FROM file_object WHERE checksum = :checksum AND bucket = :bucket AND ref_count > 0 ORDER BY id LIMIT 1) " +
+        "RETURNING *"
+    )
+    Mono<FileObject> acquireByChecksum(String bucket, String checksum);
+
+    /**
+     * Drop one reference for every occurrence of an id in {@code ids}.
+     *
+     * @return the updated file objects, with their remaining reference count.
+     */
+    @Query(
+        "UPDATE file_object f SET ref_count = f.ref_count - r.refs " +
+        "FROM (SELECT id, count(*) AS refs FROM unnest(CAST(:ids AS bigint[])) AS id GROUP BY id) r " +
+        "WHERE f.id = r.id RETURNING f.*"
+    )
+    Flux<FileObject> releaseByIds(Long[] ids);
+
+    @Query("DELETE FROM file_object WHERE id = ANY(:ids) AND ref_count <= 0 RETURNING *")
+    Flux<FileObject> deleteUnreferencedByIds(Long[] ids);
 }
 
 interface FileObjectRepositoryInternal {
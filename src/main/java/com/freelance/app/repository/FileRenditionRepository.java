@@ -0,0 +1,17 @@
+package com.freelance.app.repository;
+
+import com.freelance.app.domain.FileRendition;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Spring Data R2DBC repository for the FileRendition entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface FileRenditionRepository extends R2dbcRepository<FileRendition, Long> {
+    @Query("SELECT * FROM file_rendition WHERE file_id = ANY(:fileIds) ORDER BY width")
+    Flux<FileRendition> findByFileIds(Long[] fileIds);
+}
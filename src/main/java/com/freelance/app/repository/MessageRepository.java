@@ -3,9 +3,9 @@ package com.freelance.app.repository;
 import com.freelance.app.domain.Message;
 import com.freelance.app.domain.criteria.MessageCriteria;
 import com.freelance.app.service.dto.MessageShortDTO;
+import java.util.List;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
@@ -33,16 +33,6 @@ public interface MessageRepository extends ReactiveCrudRepository<Message, Long>
     @Override
     @NotNull
     Mono<Void> deleteById(@NotNull Long id);
-
-    @Query(
-        """
-        SELECT * FROM message m
-        WHERE m.conversation_id = ANY(:conversationIds)
-        ORDER BY m.sent_at DESC
-        LIMIT 1;
-        """
-    )
-    Flux<Message> findLatestForEachConversation(Long[] conversationIds);
 }
 
 interface MessageRepositoryInternal {
@@ -60,5 +50,9 @@ interface MessageRepositoryInternal {
 
     Mono<Void> deleteById(Long id);
 
-    Flux<MessageShortDTO> findAllConversationMessages(Long conversationId);
+    Flux<MessageShortDTO> findConversationMessages(Long conversationId, Long before, Long from);
+
+    Flux<Long> findPageIds(Long conversationId, Long before, int limit);
+
+    Flux<Message> insertAll(List<Message> messages);
 }
@@ -13,6 +13,7 @@ import com.freelance.app.service.dto.MessageShortDTO;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.domain.Pageable;
@@ -27,6 +28,8 @@ import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 import tech.jhipster.service.ConditionBuilder;
 
 /**
@@ -47,6 +50,41 @@ class MessageRepositoryInternalImpl extends SimpleR2dbcRepository<Message, Long>
     private static final Table senderTable = Table.aliased("profile", "sender");
     private static final Table receiverTable = Table.aliased("profile", "receiver");
 
+    private static final String INSERT_MESSAGES =
+        """
+        WITH numbered AS MATERIALIZED (
+            SELECT nextval(pg_get_serial_sequence('message', 'id')) AS id, v.*
+            FROM (VALUES %s) AS v (ord, body, sent_at, conversation_id, sender_id, receiver_id)
+        ), locked AS MATERIALIZED (
+            -- in id order, concurrent batches touching the same conversations wait for each other instead of deadlocking
+            SELECT id, participant_a_id, participant_b_id FROM conversation
+            WHERE id IN (SELECT conversation_id FROM numbered)
+            ORDER BY id
+            FOR NO KEY UPDATE
+        ), inserted AS (
+            INSERT INTO message (id, body, sent_at, conversation_id, sender_id, receiver_id)
+            SELECT id, body, sent_at, conversation_id, sender_id, receiver_id FROM numbered
+            RETURNING id, sent_at, conversation_id, receiver_id
+        ), inbox AS (
+            UPDATE conversation c
+            SET last_message_id = GREATEST(c.last_message_id, s.last_id),
+                last_message_at = GREATEST(c.last_message_at, s.last_at),
+                participant_a_unread_count = c.participant_a_unread_count + s.to_a,
+                participant_b_unread_count = c.participant_b_unread_count + s.to_b
+            FROM (
+                SELECT i.conversation_id, MAX(i.id) AS last_id, MAX(i.sent_at) AS last_at,
+                    COUNT(*) FILTER (WHERE i.receiver_id = p.participant_a_id) AS to_a,
+                    COUNT(*) FILTER (WHERE i.receiver_id = p.participant_b_id) AS to_b
+                FROM inserted i JOIN locked p ON p.id = i.conversation_id
+                GROUP BY i.conversation_id
+            ) s
+            WHERE c.id = s.conversation_id
+        )
+        SELECT n.ord, n.id FROM numbered n JOIN inserted i ON i.id = n.id
+        """;
+
+    private static final String INSERT_ROW = "(%1$d, :body%1$d, :sentAt%1$d, :conversationId%1$d, :senderId%1$d, :receiverId%1$d)";
+
     public MessageRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
@@ -112,11 +150,53 @@ class MessageRepositoryInternalImpl extends SimpleR2dbcRepository<Message, Long>
         return createQuery(null, whereClause).one();
     }
 
+    /**
+     * Get the messages of a conversation in a range of ids, newest message first.
+     *
+     * @param before only messages with a smaller id are returned, {@code null} for no upper bound.
+     * @param from only messages with this id or a larger one are returned.
+     */
     @Override
-    public Flux<MessageShortDTO> findAllConversationMessages(Long conversationId) {
-        Condition where = Conditions.isEqual(entityTable.column("conversation_id"), Conditions.just(conversationId.toString()));
-        List<Expression> columns = MessageSqlHelper.getColumnsShortDTO(entityTable, EntityManager.ENTITY_ALIAS);
-        return createQuery(null, where, columns).map((row, rowMetadata) -> messageMapper.applyShortDTO(row, "e")).all();
+    public Flux<MessageShortDTO> findConversationMessages(Long conversationId, Long before, Long from) {
+        return db
+            .sql(
+                """
+                SELECT e.id AS e_id, e.body AS e_body, e.sender_id AS e_sender_id, e.receiver_id AS e_receiver_id
+                FROM message e
+                WHERE e.conversation_id = :conversationId AND e.id < :before AND e.id >= :from
+                ORDER BY e.id DESC
+                """
+            )
+            .bind("conversationId", conversationId)
+            .bind("before", before == null ? Long.MAX_VALUE : before)
+            .bind("from", from)
+            .map((row, rowMetadata) -> messageMapper.applyShortDTO(row, "e"))
+            .all();
+    }
+
+    /**
+     * Get the ids of a page of a conversation, newest message first, followed by the id of the next older message when
+     * there is one. Only the index is read, so the bounds of the page are known before the page itself is streamed.
+     *
+     * @param before only messages with a smaller id are returned, {@code null} for the newest page.
+     * @param limit the maximum number of messages in the page.
+     */
+    @Override
+    public Flux<Long> findPageIds(Long conversationId, Long before, int limit) {
+        return db
+            .sql(
+                """
+                SELECT id FROM message
+                WHERE conversation_id = :conversationId AND id < :before
+                ORDER BY id DESC
+                LIMIT :limit
+                """
+            )
+            .bind("conversationId", conversationId)
+            .bind("before", before == null ? Long.MAX_VALUE : before)
+            .bind("limit", limit + 1)
+            .map((row, rowMetadata) -> row.get("id", Long.class))
+            .all();
     }
 
     private Message process(Row row, RowMetadata metadata) {
@@ -132,6 +212,47 @@ class MessageRepositoryInternalImpl extends SimpleR2dbcRepository<Message, Long>
         return super.save(entity);
     }
 
+    /**
+     * Insert several messages with a single statement. The generated ids are set on the given messages, which are
+     * returned in their original order.
+     * <p>
+     * The same statement moves the inbox of the affected conversations: their last message and the unread count of
+     * each receiver.
+     */
+    @Override
+    public Flux<Message> insertAll(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return Flux.empty();
+        }
+
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < messages.size(); i++) {
+            values.append(i == 0 ? "" : ", ").append(INSERT_ROW.formatted(i));
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = db.sql(INSERT_MESSAGES.formatted(values));
+        for (int i = 0; i < messages.size(); i++) {
+            Message message = messages.get(i);
+            spec = spec
+                .bind("body" + i, message.getBody())
+                .bind("sentAt" + i, message.getSentAt())
+                .bind("conversationId" + i, message.getConversationId())
+                .bind("senderId" + i, message.getSenderId())
+                .bind("receiverId" + i, message.getReceiverId());
+        }
+
+        // the id of each row is drawn next to its position, the order the sequence is evaluated in does not matter
+        return spec
+            .map((row, rowMetadata) -> Tuples.of(row.get("ord", Integer.class), row.get("id", Long.class)))
+            .all()
+            .sort(Comparator.comparing(Tuple2::getT1))
+            .map(id -> {
+                Message message = messages.get(id.getT1());
+                message.setId(id.getT2());
+                return message;
+            });
+    }
+
     @Override
     public Flux<Message> findByCriteria(MessageCriteria messageCriteria, Pageable page) {
         return createQuery(page, buildConditions(messageCriteria)).all();
@@ -22,6 +22,9 @@ public interface OfferMediaRepository extends ReactiveCrudRepository<OfferMedia,
     @Query("SELECT * FROM offer_media entity WHERE entity.offer_id = :id")
     Flux<OfferMedia> findByOffer(Long id);
 
+    @Query("SELECT * FROM offer_media entity WHERE entity.offer_id = ANY(:offerIds)")
+    Flux<OfferMedia> findByOfferIds(Long[] offerIds);
+
     @Override
     <S extends OfferMedia> @NotNull Mono<S> save(@NotNull S entity);
 
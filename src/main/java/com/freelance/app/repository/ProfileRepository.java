@@ -3,6 +3,7 @@ package com.freelance.app.repository;
 import com.freelance.app.domain.Profile;
 import com.freelance.app.domain.criteria.ProfileCriteria;
 import com.freelance.app.service.dto.ProfileDTO;
+import java.util.Optional;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
@@ -36,6 +37,9 @@ public interface ProfileRepository extends ReactiveCrudRepository<Profile, Long>
 
     Mono<Profile> findByUserId(Long id);
 
+    @Query("SELECT p.id FROM profile p JOIN jhi_user u ON u.id = p.user_id WHERE u.login = :login")
+    Mono<Long> findIdByUserLogin(String login);
+
     @Query("SELECT * FROM profile WHERE id = ANY(:ids)")
     Flux<Profile> findAllByIds(Long[] ids);
 }
@@ -56,4 +60,8 @@ interface ProfileRepositoryInternal {
     Mono<Void> deleteById(Long id);
 
     Mono<ProfileDTO> findOne(Long id);
+
+    Flux<ProfileDTO> findDTOsByIds(Long[] ids);
+
+    Mono<Optional<Long>> replaceProfilePicture(Long id, Long pictureId);
 }
@@ -6,15 +6,18 @@ import com.freelance.app.domain.criteria.ProfileCriteria;
 import com.freelance.app.repository.rowmapper.*;
 import com.freelance.app.repository.sqlhelper.FileObjectSqlHelper;
 import com.freelance.app.repository.sqlhelper.ProfileSqlHelper;
-import com.freelance.app.repository.sqlhelper.SkillSqlHelper;
 import com.freelance.app.repository.sqlhelper.UserSqlHelper;
 import com.freelance.app.service.dto.ProfileDTO;
+import com.freelance.app.service.dto.SkillShortDTO;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
@@ -47,7 +50,6 @@ class ProfileRepositoryInternalImpl extends SimpleR2dbcRepository<Profile, Long>
     private static final Table entityTable = Table.aliased("profile", EntityManager.ENTITY_ALIAS);
     private static final Table userTable = Table.aliased("jhi_user", "e_user");
     private static final Table profilePictureTable = Table.aliased("file_object", "profilePicture");
-    private static final Table skillTable = Table.aliased("skill", "skill");
 
     private static final EntityManager.LinkTable skillLink = new EntityManager.LinkTable("rel_profile__skill", "profile_id", "skill_id");
 
@@ -137,36 +139,84 @@ class ProfileRepositoryInternalImpl extends SimpleR2dbcRepository<Profile, Long>
 
     @Override
     public Mono<ProfileDTO> findOne(Long id) {
-        return findByIdDTO(id).flatMap(this::fetchSkills);
+        return findDTOs("e.id = :id").bind("id", id).map(this::processDTO).one();
     }
 
-    private Mono<ProfileDTO> findByIdDTO(Long id) {
-        String columns = ProfileSqlHelper.getColumnsShortDTO(entityTable, EntityManager.ENTITY_ALIAS)
-            .stream()
-            .map(Expression::toString)
-            .collect(Collectors.joining(", "));
+    @Override
+    public Flux<ProfileDTO> findDTOsByIds(Long[] ids) {
+        if (ids == null || ids.length == 0) {
+            return Flux.empty();
+        }
+        return findDTOs("e.id = ANY(:ids)").bind("ids", ids).map(this::processDTO).all();
+    }
 
-        String sql = "SELECT " + columns + " " + "FROM profile e " + "WHERE e.id = :id";
-        return db.sql(sql).bind("id", id).map((row, rowMetadata) -> profileMapper.applyDTO(row, "e")).one();
+    /**
+     * Point a profile at a new picture. Only the picture column is written, the rest of the row is left as it is.
+     *
+     * @return the id of the previous picture, or empty if there is no such profile.
+     */
+    @Override
+    public Mono<Optional<Long>> replaceProfilePicture(Long id, Long pictureId) {
+        return db
+            .sql(
+                """
+                UPDATE profile p SET profile_picture_id = :pictureId
+                FROM (SELECT id, profile_picture_id FROM profile WHERE id = :id FOR UPDATE) previous
+                WHERE p.id = previous.id
+                RETURNING previous.profile_picture_id
+                """
+            )
+            .bind("id", id)
+            .bind("pictureId", pictureId)
+            .map((row, rowMetadata) -> Optional.ofNullable(row.get("profile_picture_id", Long.class)))
+            .one();
     }
 
-    private Mono<ProfileDTO> fetchSkills(ProfileDTO entity) {
-        String columns = SkillSqlHelper.getColumnsShort(skillTable, "skill")
-            .stream()
+    /**
+     * Select profile DTOs with their skills and picture in one query, the skills are aggregated per profile so they
+     * do not multiply the rows.
+     */
+    private DatabaseClient.GenericExecuteSpec findDTOs(String where) {
+        String columns = Stream.concat(
+            ProfileSqlHelper.getColumnsShortDTO(entityTable, EntityManager.ENTITY_ALIAS).stream(),
+            FileObjectSqlHelper.getColumns(profilePictureTable, "profilePicture").stream()
+        )
             .map(Expression::toString)
             .collect(Collectors.joining(", "));
 
-        String sql = "SELECT " + columns + " " + "FROM skill skill " + "JOIN rel_profile__skill sk ON sk.profile_id = :profileId";
-        return db
-            .sql(sql)
-            .bind("profileId", entity.getId())
-            .map((row, rowMetadata) -> skillMapper.applyShort(row, "skill"))
-            .all()
-            .collectList()
-            .map(skills -> {
-                entity.setSkills(new HashSet<>(skills));
-                return entity;
-            });
+        String sql =
+            "SELECT " +
+            columns +
+            ", skills.ids AS e_skill_ids, skills.names AS e_skill_names " +
+            "FROM profile e " +
+            "LEFT JOIN file_object profilePicture ON profilePicture.id = e.profile_picture_id " +
+            "LEFT JOIN LATERAL (" +
+            "SELECT array_agg(skill.id ORDER BY skill.name) AS ids, array_agg(skill.name ORDER BY skill.name) AS names " +
+            "FROM rel_profile__skill sk JOIN skill skill ON skill.id = sk.skill_id " +
+            "WHERE sk.profile_id = e.id" +
+            ") skills ON true " +
+            "WHERE " +
+            where;
+        return db.sql(sql);
+    }
+
+    private ProfileDTO processDTO(Row row, RowMetadata metadata) {
+        ProfileDTO dto = profileMapper.applyDTO(row, "e");
+
+        Set<SkillShortDTO> skills = new LinkedHashSet<>();
+        Long[] skillIds = row.get("e_skill_ids", Long[].class);
+        String[] skillNames = row.get("e_skill_names", String[].class);
+        if (skillIds != null && skillNames != null) {
+            for (int i = 0; i < skillIds.length; i++) {
+                skills.add(new SkillShortDTO(skillIds[i], skillNames[i]));
+            }
+        }
+        dto.setSkills(skills);
+
+        if (columnConverter.fromRow(row, "profilePicture_id", Long.class) != null) {
+            dto.setProfilePicture(fileobjectMapper.apply(row, "profilePicture"));
+        }
+        return dto;
     }
 
     protected Mono<Void> deleteRelations(Long entityId) {
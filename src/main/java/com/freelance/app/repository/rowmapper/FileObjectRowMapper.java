@@ -32,6 +32,7 @@ public class FileObjectRowMapper implements BiFunction<Row, String, FileObject>
         entity.setFileSize(converter.fromRow(row, prefix + "_file_size", Long.class));
         entity.setChecksum(converter.fromRow(row, prefix + "_checksum", String.class));
         entity.setDurationSeconds(converter.fromRow(row, prefix + "_duration_seconds", Integer.class));
+        entity.setRefCount(converter.fromRow(row, prefix + "_ref_count", Integer.class));
         entity.setCreatedDate(converter.fromRow(row, prefix + "_created_date", Instant.class));
         entity.setLastModifiedDate(converter.fromRow(row, prefix + "_last_modified_date", Instant.class));
         entity.setCreatedBy(converter.fromRow(row, prefix + "_created_by", String.class));
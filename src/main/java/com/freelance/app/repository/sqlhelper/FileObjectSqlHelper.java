@@ -17,6 +17,7 @@ public class FileObjectSqlHelper {
         columns.add(Column.aliased("file_size", table, columnPrefix + "_file_size"));
         columns.add(Column.aliased("checksum", table, columnPrefix + "_checksum"));
         columns.add(Column.aliased("duration_seconds", table, columnPrefix + "_duration_seconds"));
+        columns.add(Column.aliased("ref_count", table, columnPrefix + "_ref_count"));
         columns.add(Column.aliased("created_date", table, columnPrefix + "_created_date"));
         columns.add(Column.aliased("last_modified_date", table, columnPrefix + "_last_modified_date"));
         columns.add(Column.aliased("created_by", table, columnPrefix + "_created_by"));
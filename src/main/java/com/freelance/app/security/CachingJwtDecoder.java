@@ -0,0 +1,121 @@
+package com.freelance.app.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+/**
+ * Decoder that keeps the tokens it verified, so a client sending the same bearer token again is not verified again.
+ * <p>
+ * Tokens are keyed by their SHA-256 and kept until they expire, the least recently used are dropped once the cache is
+ * full. Only tokens the delegate accepted are cached: invalid tokens always reach the delegate, which tracks them, and
+ * an expired token is handed back to it as well.
+ */
+public class CachingJwtDecoder implements ReactiveJwtDecoder {
+
+    private static final String METER_PREFIX = "security.jwt.cache.";
+
+    private final ReactiveJwtDecoder delegate;
+    private final int maxEntries;
+    private final Clock clock;
+
+    // guarded by this
+    private final LinkedHashMap<String, Jwt> tokens;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter saved;
+    private final Timer verification;
+
+    public CachingJwtDecoder(ReactiveJwtDecoder delegate, int maxEntries, MeterRegistry registry) {
+        this(delegate, maxEntries, registry, Clock.systemUTC());
+    }
+
+    CachingJwtDecoder(ReactiveJwtDecoder delegate, int maxEntries, MeterRegistry registry, Clock clock) {
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.tokens = new LinkedHashMap<>(Math.min(maxEntries, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Jwt> eldest) {
+                return size() > CachingJwtDecoder.this.maxEntries;
+            }
+        };
+
+        this.hits = requests("hit").register(registry);
+        this.misses = requests("miss").register(registry);
+        this.saved = Counter.builder(METER_PREFIX + "saved")
+            .baseUnit("seconds")
+            .description("Verification time saved by cached tokens, estimated from the mean verification time")
+            .register(registry);
+        this.verification = Timer.builder("security.jwt.verification").description("Time to verify a token").register(registry);
+        Gauge.builder(METER_PREFIX + "entries", this, CachingJwtDecoder::size).description("Verified tokens cached").register(registry);
+    }
+
+    private static Counter.Builder requests(String result) {
+        return Counter.builder(METER_PREFIX + "requests").description("Token cache lookups").tag("result", result);
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) {
+        if (maxEntries <= 0) {
+            return delegate.decode(token);
+        }
+
+        String key = digest(token);
+        Jwt cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            saved.increment(verification.mean(TimeUnit.SECONDS));
+            return Mono.just(cached);
+        }
+
+        misses.increment();
+        Timer.Sample sample = Timer.start();
+        return delegate
+            .decode(token)
+            .doOnNext(jwt -> {
+                sample.stop(verification);
+                if (jwt.getExpiresAt() != null) {
+                    put(key, jwt);
+                }
+            });
+    }
+
+    private synchronized Jwt lookup(String key) {
+        Jwt jwt = tokens.get(key);
+        if (jwt != null && !clock.instant().isBefore(jwt.getExpiresAt())) {
+            tokens.remove(key);
+            return null;
+        }
+        return jwt;
+    }
+
+    private synchronized void put(String key, Jwt jwt) {
+        tokens.put(key, jwt);
+    }
+
+    synchronized int size() {
+        return tokens.size();
+    }
+
+    private static String digest(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
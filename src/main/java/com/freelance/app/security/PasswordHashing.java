@@ -0,0 +1,189 @@
+package com.freelance.app.security;
+
+import com.freelance.app.config.ApplicationProperties;
+import com.freelance.app.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs password hashing on its own threads, so a burst of logins cannot take the threads used for blocking I/O.
+ * <p>
+ * Work waits in a bounded queue for a free thread and is rejected with {@link TooManyRequestsException} once the queue
+ * is full. Failed login attempts are also limited per login and per client address before they get that far.
+ */
+@Component
+public class PasswordHashing implements DisposableBean {
+
+    private static final String METER_PREFIX = "password.hashing.";
+
+    // logins and addresses whose attempts are remembered, per kind
+    private static final int TRACKED_KEYS = 100_000;
+
+    private final ThreadPoolExecutor executor;
+    private final Scheduler scheduler;
+
+    private final TokenBuckets loginAttempts;
+    private final TokenBuckets ipAttempts;
+    private final TrustedProxies trustedProxies;
+
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedRateLimited;
+
+    public PasswordHashing(ApplicationProperties applicationProperties, MeterRegistry registry) {
+        ApplicationProperties.PasswordHashing properties = applicationProperties.getPasswordHashing();
+
+        Timer wait = Timer.builder(METER_PREFIX + "queue.wait").description("Time password hashing waited for a thread").register(registry);
+        Timer duration = Timer.builder(METER_PREFIX + "duration").description("Time spent hashing passwords").register(registry);
+        this.executor = new HashingExecutor(properties.getThreads(), properties.getQueueSize(), wait, duration);
+        this.scheduler = Schedulers.fromExecutorService(executor, "password-hashing");
+
+        Duration minute = Duration.ofMinutes(1);
+        this.loginAttempts = new TokenBuckets(properties.getLoginAttemptsPerMinute(), minute, TRACKED_KEYS, System::nanoTime);
+        this.ipAttempts = new TokenBuckets(properties.getIpAttemptsPerMinute(), minute, TRACKED_KEYS, System::nanoTime);
+        this.trustedProxies = new TrustedProxies(properties.getTrustedProxies());
+
+        this.rejectedQueueFull = rejected("queue-full").register(registry);
+        this.rejectedRateLimited = rejected("rate-limited").register(registry);
+        Gauge.builder(METER_PREFIX + "queued", executor, e -> e.getQueue().size())
+            .description("Password hashing waiting for a thread")
+            .register(registry);
+    }
+
+    private static Counter.Builder rejected(String reason) {
+        return Counter.builder(METER_PREFIX + "rejected").description("Rejected password hashing").tag("reason", reason);
+    }
+
+    /**
+     * @return the scheduler running password hashing, work it rejects fails with a {@link RejectedExecutionException}
+     * that {@link #admit(Mono)} turns into a {@link TooManyRequestsException}.
+     */
+    public Scheduler scheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Run hashing work on the password hashing threads.
+     *
+     * @param work the work, it may hash or match passwords.
+     * @return the result of the work, or a {@link TooManyRequestsException} if the queue is full.
+     */
+    public <T> Mono<T> hash(Callable<T> work) {
+        return admit(Mono.fromCallable(work).subscribeOn(scheduler));
+    }
+
+    /**
+     * Report work rejected by {@link #scheduler()} as too many requests.
+     */
+    public <T> Mono<T> admit(Mono<T> work) {
+        return work.onErrorMap(RejectedExecutionException.class, e -> {
+            rejectedQueueFull.increment();
+            return new TooManyRequestsException();
+        });
+    }
+
+    /**
+     * Take a login attempt from the allowance of a login and of a client address.
+     * <p>
+     * Attempts are taken up front so that concurrent attempts cannot exceed the allowance, a successful one is given
+     * back with {@link #releaseLoginAttempt(String, String)} so that only failed attempts count.
+     *
+     * @param login the login the client tries to authenticate as.
+     * @param address the address of the client, {@code null} if it is unknown.
+     * @return a {@link TooManyRequestsException} if either has no attempt left, empty otherwise.
+     */
+    public Mono<Void> acquireLoginAttempt(String login, String address) {
+        if (address != null && !ipAttempts.tryAcquire(address)) {
+            return rateLimited();
+        }
+        if (login != null && !loginAttempts.tryAcquire(loginKey(login))) {
+            // the attempt is not made, it does not count against the address
+            if (address != null) {
+                ipAttempts.release(address);
+            }
+            return rateLimited();
+        }
+        return Mono.empty();
+    }
+
+    private Mono<Void> rateLimited() {
+        rejectedRateLimited.increment();
+        return Mono.error(new TooManyRequestsException());
+    }
+
+    /**
+     * @return the address login attempts of a request are limited by, the client behind the trusted proxies.
+     */
+    public String clientAddress(ServerHttpRequest request) {
+        return trustedProxies.clientAddress(request);
+    }
+
+    /**
+     * Give back a login attempt taken by {@link #acquireLoginAttempt(String, String)} once it succeeded.
+     */
+    public void releaseLoginAttempt(String login, String address) {
+        if (address != null) {
+            ipAttempts.release(address);
+        }
+        if (login != null) {
+            loginAttempts.release(loginKey(login));
+        }
+    }
+
+    private static String loginKey(String login) {
+        return login.toLowerCase();
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+
+    private static final class HashingExecutor extends ThreadPoolExecutor {
+
+        private final Timer wait;
+        private final Timer duration;
+
+        HashingExecutor(int threads, int queueSize, Timer wait, Timer duration) {
+            super(
+                threads,
+                threads,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                new CustomizableThreadFactory("password-hashing-"),
+                new AbortPolicy()
+            );
+            this.wait = wait;
+            this.duration = duration;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            long queuedAt = System.nanoTime();
+            super.execute(() -> {
+                long startedAt = System.nanoTime();
+                wait.record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    command.run();
+                } finally {
+                    duration.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        }
+    }
+}
@@ -22,6 +22,8 @@ public final class SecurityUtils {
 
     public static final String USER_ID_CLAIM = "userId";
 
+    public static final String PROFILE_ID_CLAIM = "profileId";
+
     private SecurityUtils() {}
 
     /**
@@ -73,6 +75,30 @@ public final class SecurityUtils {
             .map(principal -> principal.getClaim(USER_ID_CLAIM));
     }
 
+    /**
+     * Get the profile id the token of the current user carries, without a query. The profile may have been deleted since
+     * the token was issued.
+     *
+     * @return the profile id of the current user, or empty if the token does not carry one.
+     */
+    public static Mono<Long> getCurrentProfileId() {
+        return ReactiveSecurityContextHolder.getContext()
+            .map(SecurityContext::getAuthentication)
+            .filter(authentication -> authentication.getPrincipal() instanceof ClaimAccessor)
+            .flatMap(authentication -> Mono.justOrEmpty(extractProfileId((ClaimAccessor) authentication.getPrincipal())));
+    }
+
+    /**
+     * Get the profile id carried by a token. Tokens issued before the user had a profile, or by an older version,
+     * do not carry one.
+     *
+     * @param claims the claims of the token.
+     * @return the profile id, or {@code null}.
+     */
+    public static Long extractProfileId(ClaimAccessor claims) {
+        return claims.getClaim(PROFILE_ID_CLAIM) instanceof Number profileId ? profileId.longValue() : null;
+    }
+
     /**
      * Check if a user is authenticated.
      *
@@ -0,0 +1,109 @@
+package com.freelance.app.security;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets for an unbounded set of keys in a bounded amount of memory.
+ * <p>
+ * Every key has a bucket of its own holding up to {@code capacity} tokens, it gets them back at a steady rate, so a
+ * key may burst to the capacity and then continues at the rate. The buckets are spread over segments with a lock each
+ * and a segment keeps its most recently used buckets only. A bucket that is dropped starts full again, which only
+ * matters for a key left alone while more than {@code maxKeys} other keys are used.
+ */
+class TokenBuckets {
+
+    private static final int SEGMENTS = 64;
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongSupplier clock;
+
+    // each segment guarded by its own monitor
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    TokenBuckets(int capacity, Duration period, int maxKeys, LongSupplier clock) {
+        this.capacity = capacity;
+        this.tokensPerNano = (double) capacity / period.toNanos();
+        this.clock = clock;
+        int keysPerSegment = Math.max(1, maxKeys / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(keysPerSegment);
+        }
+    }
+
+    /**
+     * Take a token from the bucket of a key.
+     *
+     * @return whether the key had a token left.
+     */
+    boolean tryAcquire(String key) {
+        Segment segment = segment(key);
+        synchronized (segment) {
+            Bucket bucket = refill(segment, key);
+            if (bucket.tokens < 1) {
+                return false;
+            }
+            bucket.tokens -= 1;
+            return true;
+        }
+    }
+
+    /**
+     * Give back a token taken by {@link #tryAcquire(String)}, for an attempt that should not count against the key.
+     */
+    void release(String key) {
+        Segment segment = segment(key);
+        synchronized (segment) {
+            Bucket bucket = segment.get(key);
+            if (bucket != null) {
+                bucket.tokens = Math.min(capacity, bucket.tokens + 1);
+            }
+        }
+    }
+
+    private Segment segment(String key) {
+        return segments[Math.floorMod(key.hashCode() * 0x9E3779B9, SEGMENTS)];
+    }
+
+    private Bucket refill(Segment segment, String key) {
+        long now = clock.getAsLong();
+        Bucket bucket = segment.get(key);
+        if (bucket == null) {
+            bucket = new Bucket(capacity, now);
+            segment.put(key, bucket);
+        } else {
+            bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.updatedAt) * tokensPerNano);
+            bucket.updatedAt = now;
+        }
+        return bucket;
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long updatedAt;
+
+        Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    private static final class Segment extends LinkedHashMap<String, Bucket> {
+
+        private final int maxKeys;
+
+        Segment(int maxKeys) {
+            super(16, 0.75f, true);
+            this.maxKeys = maxKeys;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > maxKeys;
+        }
+    }
+}
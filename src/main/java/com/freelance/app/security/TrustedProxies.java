@@ -0,0 +1,122 @@
+package com.freelance.app.security;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+/**
+ * Resolves the address of the client behind the reverse proxies in front of the application.
+ * <p>
+ * {@code X-Forwarded-For} is only read when the request comes from a trusted proxy, and only up to the first address
+ * that is not a trusted proxy: everything before it was written by the client and can be anything.
+ */
+class TrustedProxies {
+
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    // only literals are parsed, InetAddress would resolve anything else through DNS
+    private static final Pattern IPV4 = Pattern.compile("(\\d{1,3})\\.(\\d{1,3})\\.(\\d{1,3})\\.(\\d{1,3})");
+    private static final Pattern IPV6 = Pattern.compile("[0-9a-fA-F:.]*:[0-9a-fA-F:.]*");
+
+    private final List<Range> proxies;
+
+    /**
+     * @param proxies the addresses or CIDR ranges of the trusted proxies.
+     */
+    TrustedProxies(List<String> proxies) {
+        this.proxies = proxies.stream().map(Range::parse).toList();
+    }
+
+    /**
+     * @return the address of the client, {@code null} if it is unknown.
+     */
+    String clientAddress(ServerHttpRequest request) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        if (remote == null) {
+            return null;
+        }
+        String address = remote.getHostString();
+        List<String> forwarded = forwardedFor(request);
+        // walk back from the proxy that connected to us, through the ones it trusts
+        for (int i = forwarded.size() - 1; i >= 0 && isTrusted(address); i--) {
+            address = forwarded.get(i);
+        }
+        return address;
+    }
+
+    private boolean isTrusted(String address) {
+        if (proxies.isEmpty()) {
+            return false;
+        }
+        // not an IP address, e.g. a malformed forwarded entry
+        byte[] bytes = parseAddress(address);
+        return bytes != null && proxies.stream().anyMatch(proxy -> proxy.contains(bytes));
+    }
+
+    private static byte[] parseAddress(String address) {
+        Matcher ipv4 = IPV4.matcher(address);
+        if (ipv4.matches()) {
+            byte[] bytes = new byte[4];
+            for (int i = 0; i < 4; i++) {
+                int part = Integer.parseInt(ipv4.group(i + 1));
+                if (part > 255) {
+                    return null;
+                }
+                bytes[i] = (byte) part;
+            }
+            return bytes;
+        }
+        if (!IPV6.matcher(address).matches()) {
+            return null;
+        }
+        try {
+            // a literal with a colon is never looked up
+            return InetAddress.getByName(address).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private static List<String> forwardedFor(ServerHttpRequest request) {
+        List<String> addresses = new ArrayList<>();
+        for (String header : request.getHeaders().getOrEmpty(X_FORWARDED_FOR)) {
+            for (String address : header.split(",")) {
+                if (!address.isBlank()) {
+                    addresses.add(address.strip());
+                }
+            }
+        }
+        return addresses;
+    }
+
+    private record Range(byte[] network, int prefixLength) {
+        static Range parse(String range) {
+            int slash = range.indexOf('/');
+            String address = slash < 0 ? range : range.substring(0, slash);
+            byte[] network = parseAddress(address.strip());
+            if (network == null) {
+                throw new IllegalArgumentException("Not an IP address or CIDR range: " + range);
+            }
+            int prefixLength = slash < 0 ? network.length * 8 : Integer.parseInt(range.substring(slash + 1).strip());
+            return new Range(network, prefixLength);
+        }
+
+        boolean contains(byte[] address) {
+            if (address.length != network.length) {
+                return false;
+            }
+            for (int bit = 0; bit < prefixLength; bit++) {
+                int mask = 0x80 >>> (bit % 8);
+                if ((address[bit / 8] & mask) != (network[bit / 8] & mask)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
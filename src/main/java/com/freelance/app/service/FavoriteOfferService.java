@@ -55,10 +55,10 @@ public class FavoriteOfferService {
 
     public Mono<List<FavoriteOfferDTO>> getAllFavoriteOffers() {
         return profileHelper
-            .getCurrentProfile()
-            .flatMap(profile ->
+            .getCurrentProfileId()
+            .flatMap(profileId ->
                 favoriteOfferRepository
-                    .findAllByProfileId(profile.getId())
+                    .findAllByProfileId(profileId)
                     .collectList()
                     .flatMap(favoriteOffers -> {
                         List<FavoriteOfferDTO> favoriteOfferDTOS = favoriteOffers
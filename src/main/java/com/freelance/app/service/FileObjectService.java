@@ -0,0 +1,116 @@
+package com.freelance.app.service;
+
+import com.freelance.app.domain.FileObject;
+import com.freelance.app.repository.FileObjectRepository;
+import com.freelance.app.security.AuthoritiesConstants;
+import com.freelance.app.security.SecurityUtils;
+import com.freelance.app.util.BlobCache;
+import com.freelance.app.util.MinioUtil;
+import com.freelance.app.util.ProfileHelper;
+import com.freelance.app.web.rest.errors.NotFoundAlertException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service Implementation for reading stored {@link FileObject} content.
+ */
+@Service
+public class FileObjectService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileObjectService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileObjectRepository fileObjectRepository;
+    private final MinioUtil minioUtil;
+    private final BlobCache blobCache;
+    private final ProfileHelper profileHelper;
+
+    public FileObjectService(
+        FileObjectRepository fileObjectRepository,
+        MinioUtil minioUtil,
+        BlobCache blobCache,
+        ProfileHelper profileHelper
+    ) {
+        this.fileObjectRepository = fileObjectRepository;
+        this.minioUtil = minioUtil;
+        this.blobCache = blobCache;
+        this.profileHelper = profileHelper;
+    }
+
+    /**
+     * Get a file the current user may read. Offer media and profile pictures can be read by everyone, a verification
+     * photo only by the profile that sent it and by administrators.
+     *
+     * @param id the id of the file.
+     * @return the file, or empty if there is no such file or the current user may not read it.
+     */
+    public Mono<FileObject> findReadable(Long id) {
+        Mono<Optional<Long>> profileId = profileHelper
+            .getCurrentProfileId()
+            .map(Optional::of)
+            .onErrorResume(NotFoundAlertException.class, _ -> Mono.empty())
+            .defaultIfEmpty(Optional.empty());
+        return Mono.zip(profileId, SecurityUtils.hasCurrentUserThisAuthority(AuthoritiesConstants.ADMIN)).flatMap(reader ->
+            fileObjectRepository.findReadableById(id, reader.getT1().orElse(null), reader.getT2())
+        );
+    }
+
+    /**
+     * Get the local copy of a stored file, so it can be sent without reading it into the heap.
+     *
+     * @param file the file.
+     * @return the path of the copy, or empty if the file is only available from MinIO.
+     */
+    public Mono<Path> findLocalCopy(FileObject file) {
+        return blobCache.get(file);
+    }
+
+    /**
+     * Stream a byte range of a stored file. Files that fit in the {@link BlobCache} are read from their local copy, larger
+     * ones are read from MinIO as the buffers are requested, so only a few buffers of a large video are held in memory
+     * at a time.
+     *
+     * @param file the file to read.
+     * @param offset the first byte to read.
+     * @param length the number of bytes to read.
+     * @return the content.
+     */
+    public Flux<DataBuffer> read(FileObject file, long offset, long length) {
+        LOG.debug("Request to read {} bytes at {} of file {}", length, offset, file.getId());
+        return blobCache
+            .get(file)
+            .flatMapMany(path ->
+                // the copy may be evicted between the lookup and the open, nothing has been emitted yet at that point
+                readLocal(path, offset, length).onErrorResume(NoSuchFileException.class, _ -> readRemote(file, offset, length))
+            )
+            .switchIfEmpty(Flux.defer(() -> readRemote(file, offset, length)));
+    }
+
+    private Flux<DataBuffer> readLocal(Path path, long offset, long length) {
+        return DataBufferUtils.takeUntilByteCount(
+            DataBufferUtils.readAsynchronousFileChannel(
+                () -> AsynchronousFileChannel.open(path, StandardOpenOption.READ),
+                offset,
+                DefaultDataBufferFactory.sharedInstance,
+                BUFFER_SIZE
+            ),
+            length
+        );
+    }
+
+    private Flux<DataBuffer> readRemote(FileObject file, long offset, long length) {
+        return minioUtil.download(file.getBucket(), file.getObjectKey(), offset, length);
+    }
+}
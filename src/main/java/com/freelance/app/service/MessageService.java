@@ -1,17 +1,16 @@
 package com.freelance.app.service;
 
 import com.freelance.app.domain.Message;
-import com.freelance.app.domain.Profile;
 import com.freelance.app.repository.MessageRepository;
 import com.freelance.app.service.dto.MessageShortDTO;
 import com.freelance.app.util.ProfileHelper;
 import com.freelance.app.web.rest.errors.ForbiddenAlertException;
-import java.util.List;
 import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -31,20 +30,51 @@ public class MessageService {
         this.profileHelper = profileHelper;
     }
 
-    public Mono<List<MessageShortDTO>> getAllConversationMessages(Long conversationId) {
-        LOG.debug("Service to get all messages for conversation with id: {}", conversationId);
-        return messageRepository.findAllConversationMessages(conversationId).collectList();
+    /**
+     * A page of a conversation.
+     *
+     * @param messages the messages, newest first, streamed as they are read.
+     * @param next the cursor of the next page, {@code null} on the last page.
+     */
+    public record Page(Flux<MessageShortDTO> messages, Long next) {}
+
+    /**
+     * Get a page of a conversation, newest message first.
+     * <p>
+     * The ids of the page are read first and the messages are then read by that range of ids, so a message sent in
+     * between cannot push the oldest one of the page out of both this page and the next.
+     *
+     * @param conversationId the id of the conversation.
+     * @param before the cursor returned with the previous page, {@code null} for the newest page.
+     * @param limit the maximum number of messages.
+     * @return the page.
+     */
+    @Transactional(readOnly = true)
+    public Mono<Page> getConversationMessages(Long conversationId, Long before, int limit) {
+        LOG.debug("Service to get messages for conversation with id: {} before: {}", conversationId, before);
+        return messageRepository
+            .findPageIds(conversationId, before, limit)
+            .collectList()
+            .map(ids -> {
+                if (ids.isEmpty()) {
+                    return new Page(Flux.empty(), null);
+                }
+                Long oldest = ids.get(Math.min(ids.size(), limit) - 1);
+                return new Page(
+                    messageRepository.findConversationMessages(conversationId, before, oldest),
+                    ids.size() > limit ? oldest : null
+                );
+            });
     }
 
     @Transactional
     public Mono<Message> editMessage(Long messageId, String editedMessage) {
         return profileHelper
-            .getCurrentProfile()
+            .getCurrentProfileId()
             .zipWith(messageRepository.findById(messageId))
             .flatMap(tuple -> {
                 Message message = tuple.getT2();
-                Profile profile = tuple.getT1();
-                if (!Objects.equals(profile.getId(), message.getSender().getId())) {
+                if (!Objects.equals(tuple.getT1(), message.getSender().getId())) {
                     return Mono.error(
                         new ForbiddenAlertException(
                             "Message does not belong to current profile",
@@ -75,8 +75,12 @@ public class OfferMediaService {
             .findByOffer(offerId)
             .collectList()
             .flatMap(existingMedia -> {
-                List<Long> existingFileObjects = existingMedia.stream().map(OfferMedia::getFileId).toList();
-                return offerMediaRepository.deleteAllById(mediaIds).doOnNext(_ -> fileProcessUtil.deleteFiles(existingFileObjects).then());
+                List<Long> deletedFileObjects = existingMedia
+                    .stream()
+                    .filter(media -> mediaIds.contains(media.getId()))
+                    .map(OfferMedia::getFileId)
+                    .toList();
+                return offerMediaRepository.deleteAllById(mediaIds).then(fileProcessUtil.deleteFiles(deletedFileObjects));
             })
             .then();
     }
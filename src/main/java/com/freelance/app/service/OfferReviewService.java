@@ -108,7 +108,7 @@ public class OfferReviewService {
      * @return the review created by the current user for the given offer.
      */
     public Mono<ReviewShortDTO> getMyOfferReview(Long offerId) {
-        return profileHelper.getCurrentProfile().flatMap(profile -> offerReviewRepository.findMyOfferReview(offerId, profile.getId()));
+        return profileHelper.getCurrentProfileId().flatMap(profileId -> offerReviewRepository.findMyOfferReview(offerId, profileId));
     }
 
     /**
@@ -9,12 +9,11 @@ import com.freelance.app.repository.*;
 import com.freelance.app.service.dto.OfferDTO;
 import com.freelance.app.service.dto.OfferShortDTO;
 import com.freelance.app.service.dto.OfferUpdateDTO;
-import com.freelance.app.service.dto.ProfileDTO;
-import com.freelance.app.util.ImageHelper;
+import com.freelance.app.util.FileProcessUtil;
+import com.freelance.app.util.OfferBatchLoader;
 import com.freelance.app.util.ProfileHelper;
 import com.freelance.app.web.rest.errors.ForbiddenAlertException;
 import com.freelance.app.web.rest.errors.NotFoundAlertException;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -34,30 +33,27 @@ public class OfferService {
     private final OfferRepository offerRepository;
     private final OfferTypeRepository offerTypeRepository;
     private final OfferMediaRepository offerMediaRepository;
-    private final ProfileService profileService;
     private final ProfileHelper profileHelper;
     private final TagRepository tagRepository;
-    private final ImageHelper imageHelper;
-    private final FileObjectRepository fileObjectRepository;
+    private final OfferBatchLoader offerBatchLoader;
+    private final FileProcessUtil fileProcessUtil;
 
     public OfferService(
         OfferRepository offerRepository,
         OfferTypeRepository offerTypeRepository,
         OfferMediaRepository offerMediaRepository,
-        ProfileService profileService,
         ProfileHelper profileHelper,
         TagRepository tagRepository,
-        ImageHelper imageHelper,
-        FileObjectRepository fileObjectRepository
+        OfferBatchLoader offerBatchLoader,
+        FileProcessUtil fileProcessUtil
     ) {
         this.offerRepository = offerRepository;
         this.offerTypeRepository = offerTypeRepository;
         this.offerMediaRepository = offerMediaRepository;
-        this.profileService = profileService;
         this.profileHelper = profileHelper;
         this.tagRepository = tagRepository;
-        this.imageHelper = imageHelper;
-        this.fileObjectRepository = fileObjectRepository;
+        this.offerBatchLoader = offerBatchLoader;
+        this.fileProcessUtil = fileProcessUtil;
     }
 
     /**
@@ -69,27 +65,7 @@ public class OfferService {
      *
      */
     public Mono<List<OfferShortDTO>> getOffers(OfferCriteria criteria, Pageable pageable) {
-        return offerRepository
-            .findByCriteria(criteria, pageable)
-            .flatMap(offer ->
-                Mono.zip(
-                    Mono.just(offer),
-                    profileService.findOne(offer.getOwnerId()),
-                    imageHelper.fetchOfferMediaImages(offer.getId())
-                ).map(tuple -> {
-                    Offer o = tuple.getT1();
-                    ProfileDTO owner = tuple.getT2();
-                    List<String> images = tuple.getT3();
-
-                    return new OfferShortDTO()
-                        .id(o.getId())
-                        .name(o.getName())
-                        .rating(o.getRating())
-                        .owner(owner)
-                        .offerImages(new HashSet<>(images));
-                })
-            )
-            .collectList();
+        return offerRepository.findByCriteria(criteria, pageable).collectList().flatMap(offerBatchLoader::load);
     }
 
     /**
@@ -160,15 +136,15 @@ public class OfferService {
                                 )
                             );
                         }
+                        // every media item holds its own reference, files shared with other offers or profiles are kept
                         return offerMediaRepository
                             .findByOffer(offerId)
                             .map(OfferMedia::getFileId)
-                            .distinct()
                             .collectList()
                             .flatMap(fileIds ->
-                                fileObjectRepository
-                                    .deleteAllById(fileIds)
-                                    .then(offerMediaRepository.deleteAllByOffer(offerId))
+                                offerMediaRepository
+                                    .deleteAllByOffer(offerId)
+                                    .then(fileProcessUtil.deleteFiles(fileIds))
                                     .then(offerRepository.deleteById(offerId))
                             );
                     })
@@ -83,7 +83,10 @@ public class ProfileReviewService {
                                             .defaultIfEmpty(0.0)
                                             .flatMap(avg -> {
                                                 reviewee.setRating(avg);
-                                                return profileRepository.save(reviewee).thenReturn(saved);
+                                                return profileRepository
+                                                    .save(reviewee)
+                                                    .doOnSuccess(_ -> profileHelper.evictProfile(revieweeId))
+                                                    .thenReturn(saved);
                                             })
                                     );
                             })
@@ -112,8 +115,8 @@ public class ProfileReviewService {
      */
     public Mono<ReviewShortDTO> getMyProfileReview(Long revieweeId) {
         return profileHelper
-            .getCurrentProfile()
-            .flatMap(profile -> profileReviewRepository.findMyProfileReview(revieweeId, profile.getId()));
+            .getCurrentProfileId()
+            .flatMap(profileId -> profileReviewRepository.findMyProfileReview(revieweeId, profileId));
     }
 
     /**
@@ -135,7 +138,10 @@ public class ProfileReviewService {
                             .zipWith(profileRepository.findById(review.getRevieweeId()))
                             .flatMap(tuple -> {
                                 tuple.getT2().setRating(tuple.getT1());
-                                return profileRepository.save(tuple.getT2()).then();
+                                return profileRepository
+                                    .save(tuple.getT2())
+                                    .doOnSuccess(profile -> profileHelper.evictProfile(profile.getId()))
+                                    .then();
                             })
                     )
             );
@@ -178,7 +184,10 @@ public class ProfileReviewService {
                             .zipWith(profileRepository.findById(tuple.getT2().getRevieweeId()))
                             .flatMap(tuple2 -> {
                                 tuple2.getT2().setRating(tuple2.getT1());
-                                return profileRepository.save(tuple2.getT2()).then();
+                                return profileRepository
+                                    .save(tuple2.getT2())
+                                    .doOnSuccess(profile -> profileHelper.evictProfile(profile.getId()))
+                                    .then();
                             })
                     );
             });
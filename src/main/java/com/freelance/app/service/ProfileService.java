@@ -3,7 +3,6 @@ package com.freelance.app.service;
 import com.freelance.app.domain.Profile;
 import com.freelance.app.domain.Skill;
 import com.freelance.app.domain.criteria.ProfileCriteria;
-import com.freelance.app.repository.FileObjectRepository;
 import com.freelance.app.repository.ProfileRepository;
 import com.freelance.app.repository.SkillRepository;
 import com.freelance.app.repository.UserRepository;
@@ -12,7 +11,7 @@ import com.freelance.app.service.dto.ProfileCreationDTO;
 import com.freelance.app.service.dto.ProfileDTO;
 import com.freelance.app.service.dto.ProfileEditDTO;
 import com.freelance.app.util.FileProcessUtil;
-import com.freelance.app.util.MinioUtil;
+import com.freelance.app.util.ImageHelper;
 import com.freelance.app.util.ProfileHelper;
 import com.freelance.app.web.rest.errors.BadRequestAlertException;
 import com.freelance.app.web.rest.errors.ForbiddenAlertException;
@@ -29,7 +28,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 /**
  * Service Implementation for managing {@link com.freelance.app.domain.Profile}.
@@ -40,12 +38,12 @@ public class ProfileService {
 
     private static final Logger LOG = LoggerFactory.getLogger(ProfileService.class);
     private static final String ENTITY_NAME = "profile";
+    private static final int PROFILE_PICTURE_WIDTH = 480;
 
     private final ProfileRepository profileRepository;
     private final UserRepository userRepository;
     private final SkillRepository skillRepository;
-    private final MinioUtil minioUtil;
-    private final FileObjectRepository fileObjectRepository;
+    private final ImageHelper imageHelper;
     private final ProfileHelper profileHelper;
     private final FileProcessUtil fileProcessUtil;
 
@@ -53,16 +51,14 @@ public class ProfileService {
         ProfileRepository profileRepository,
         UserRepository userRepository,
         SkillRepository skillRepository,
-        MinioUtil minioUtil,
-        FileObjectRepository fileObjectRepository,
+        ImageHelper imageHelper,
         ProfileHelper profileHelper,
         FileProcessUtil fileProcessUtil
     ) {
         this.profileRepository = profileRepository;
         this.userRepository = userRepository;
         this.skillRepository = skillRepository;
-        this.minioUtil = minioUtil;
-        this.fileObjectRepository = fileObjectRepository;
+        this.imageHelper = imageHelper;
         this.profileHelper = profileHelper;
         this.fileProcessUtil = fileProcessUtil;
     }
@@ -89,7 +85,7 @@ public class ProfileService {
                     ? Mono.just(profile)
                     : updateSkills(dto.skills(), profile).thenReturn(profile);
 
-                return afterSkills.flatMap(profileRepository::save);
+                return afterSkills.flatMap(profileRepository::save).doOnSuccess(_ -> profileHelper.evictProfile(profileId));
             });
     }
 
@@ -117,21 +113,16 @@ public class ProfileService {
         return profileRepository
             .findOne(id)
             .flatMap(profile -> {
-                Long picId = profile.getProfilePictureId();
-                if (picId == null) {
+                if (profile.getProfilePicture() == null) {
                     return Mono.just(profile);
                 }
 
-                return fileObjectRepository
-                    .findById(picId)
-                    .flatMap(fileObject ->
-                        Mono.fromCallable(() -> minioUtil.getImageAsBase64(fileObject.getBucket(), fileObject.getObjectKey()))
-                            .subscribeOn(Schedulers.boundedElastic())
-                            .map(base64 -> {
-                                profile.setImageBase64(base64);
-                                return profile;
-                            })
-                    )
+                return imageHelper
+                    .fetchImageUrl(profile.getProfilePicture(), PROFILE_PICTURE_WIDTH)
+                    .map(url -> {
+                        profile.setImageUrl(url);
+                        return profile;
+                    })
                     .switchIfEmpty(Mono.just(profile));
             });
     }
@@ -160,7 +151,12 @@ public class ProfileService {
                                 )
                             );
                         }
-                        return profileRepository.delete(tuple.getT1());
+                        return profileRepository
+                            .delete(tuple.getT1())
+                            .doOnSuccess(_ -> {
+                                profileHelper.evict(tuple.getT2());
+                                profileHelper.evictProfile(id);
+                            });
                     })
             );
     }
@@ -200,31 +196,34 @@ public class ProfileService {
             );
     }
 
+    /**
+     * Replace the picture of the current profile. Only the picture column is written, the cached profile may be older
+     * than the row.
+     *
+     * @param profilePicture the new picture.
+     */
     public Mono<Void> uploadProfilePicture(FilePart profilePicture) {
-        return profileHelper
-            .getCurrentProfile()
-            .flatMap(profile -> {
-                if (
-                    Objects.equals(profilePicture.headers().getContentType(), MediaType.IMAGE_JPEG) ||
-                    Objects.equals(profilePicture.headers().getContentType(), MediaType.IMAGE_PNG)
-                ) {
-                    return fileProcessUtil
-                        .processFile(profilePicture, profile.getUser().getLogin(), "profile-pictures")
-                        .flatMap(fileObjectRepository::save)
-                        .flatMap(fileObject -> {
-                            profile.setProfilePictureId(fileObject.getId());
-                            return profileRepository.save(profile);
-                        });
-                } else {
-                    return Mono.error(
-                        new BadRequestAlertException(
-                            "Wrong file extension",
-                            Objects.requireNonNull(profilePicture.headers().getContentType()).toString(),
-                            "fileExtension"
-                        )
-                    );
-                }
-            })
+        if (
+            !Objects.equals(profilePicture.headers().getContentType(), MediaType.IMAGE_JPEG) &&
+            !Objects.equals(profilePicture.headers().getContentType(), MediaType.IMAGE_PNG)
+        ) {
+            return Mono.error(
+                new BadRequestAlertException(
+                    "Wrong file extension",
+                    Objects.requireNonNull(profilePicture.headers().getContentType()).toString(),
+                    "fileExtension"
+                )
+            );
+        }
+        return Mono.zip(profileHelper.getCurrentProfileId(), SecurityUtils.getCurrentUserLogin())
+            .flatMap(current ->
+                fileProcessUtil
+                    .processFile(profilePicture, current.getT2(), "profile-pictures")
+                    .flatMap(fileObject -> profileRepository.replaceProfilePicture(current.getT1(), fileObject.getId()))
+                    .switchIfEmpty(Mono.error(new NotFoundAlertException("Profile not found", ENTITY_NAME, "profileNotFound")))
+                    .doOnSuccess(_ -> profileHelper.evictProfile(current.getT1()))
+                    .flatMap(previous -> previous.map(id -> fileProcessUtil.deleteFiles(List.of(id))).orElse(Mono.empty()))
+            )
             .then();
     }
 
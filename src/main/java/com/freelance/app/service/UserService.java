@@ -9,9 +9,11 @@ import com.freelance.app.exception.UsernameAlreadyUsedException;
 import com.freelance.app.repository.AuthorityRepository;
 import com.freelance.app.repository.UserRepository;
 import com.freelance.app.security.AuthoritiesConstants;
+import com.freelance.app.security.PasswordHashing;
 import com.freelance.app.security.SecurityUtils;
 import com.freelance.app.service.dto.AdminUserDTO;
 import com.freelance.app.service.dto.UserDTO;
+import com.freelance.app.util.ProfileHelper;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
@@ -44,10 +46,22 @@ public class UserService {
 
     private final AuthorityRepository authorityRepository;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthorityRepository authorityRepository) {
+    private final ProfileHelper profileHelper;
+
+    private final PasswordHashing passwordHashing;
+
+    public UserService(
+        UserRepository userRepository,
+        PasswordEncoder passwordEncoder,
+        AuthorityRepository authorityRepository,
+        ProfileHelper profileHelper,
+        PasswordHashing passwordHashing
+    ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
+        this.profileHelper = profileHelper;
+        this.passwordHashing = passwordHashing;
     }
 
     @Transactional
@@ -70,13 +84,14 @@ public class UserService {
         return userRepository
             .findOneByResetKey(key)
             .filter(user -> user.getResetDate().isAfter(Instant.now().minus(1, ChronoUnit.DAYS)))
-            .publishOn(Schedulers.boundedElastic())
-            .map(user -> {
-                user.setPassword(passwordEncoder.encode(newPassword));
-                user.setResetKey(null);
-                user.setResetDate(null);
-                return user;
-            })
+            .flatMap(user ->
+                passwordHashing.hash(() -> {
+                    user.setPassword(passwordEncoder.encode(newPassword));
+                    user.setResetKey(null);
+                    user.setResetDate(null);
+                    return user;
+                })
+            )
             .flatMap(this::saveUser);
     }
 
@@ -113,9 +128,8 @@ public class UserService {
                     return Mono.error(new EmailAlreadyUsedException());
                 }
             })
-            .publishOn(Schedulers.boundedElastic())
             .then(
-                Mono.fromCallable(() -> {
+                passwordHashing.hash(() -> {
                     User newUser = new User();
                     String encryptedPassword = passwordEncoder.encode(password);
                     newUser.setLogin(userDTO.getLogin().toLowerCase());
@@ -165,16 +179,16 @@ public class UserService {
         return Flux.fromIterable(userDTO.getAuthorities() != null ? userDTO.getAuthorities() : new HashSet<>())
             .flatMap(authorityRepository::findById)
             .doOnNext(authority -> user.getAuthorities().add(authority))
-            .then(Mono.just(user))
-            .publishOn(Schedulers.boundedElastic())
-            .map(newUser -> {
-                String encryptedPassword = passwordEncoder.encode(RandomUtil.generatePassword());
-                newUser.setPassword(encryptedPassword);
-                newUser.setResetKey(RandomUtil.generateResetKey());
-                newUser.setResetDate(Instant.now());
-                newUser.setActivated(true);
-                return newUser;
-            })
+            .then(
+                passwordHashing.hash(() -> {
+                    String encryptedPassword = passwordEncoder.encode(RandomUtil.generatePassword());
+                    user.setPassword(encryptedPassword);
+                    user.setResetKey(RandomUtil.generateResetKey());
+                    user.setResetDate(Instant.now());
+                    user.setActivated(true);
+                    return user;
+                })
+            )
             .flatMap(this::saveUser)
             .doOnNext(user1 -> LOG.debug("Created Information for User: {}", user1));
     }
@@ -190,6 +204,8 @@ public class UserService {
         return userRepository
             .findById(userDTO.getId())
             .flatMap(user -> {
+                // cached profiles carry their user, keyed by the old login
+                profileHelper.evict(user.getLogin());
                 user.setLogin(userDTO.getLogin().toLowerCase());
                 user.setFirstName(userDTO.getFirstName());
                 user.setLastName(userDTO.getLastName());
@@ -218,7 +234,10 @@ public class UserService {
         return userRepository
             .findOneByLogin(login)
             .flatMap(user -> userRepository.delete(user).thenReturn(user))
-            .doOnNext(user -> LOG.debug("Deleted User: {}", user))
+            .doOnNext(user -> {
+                profileHelper.evict(user.getLogin());
+                LOG.debug("Deleted User: {}", user);
+            })
             .then();
     }
 
@@ -244,7 +263,8 @@ public class UserService {
                 }
                 user.setLangKey(langKey);
                 user.setImageUrl(imageUrl);
-                return saveUser(user);
+                // cached profiles carry their user
+                return saveUser(user).doOnSuccess(_ -> profileHelper.evict(user.getLogin()));
             })
             .doOnNext(user -> LOG.debug("Changed Information for User: {}", user))
             .then();
@@ -275,16 +295,17 @@ public class UserService {
     public Mono<Void> changePassword(String currentClearTextPassword, String newPassword) {
         return SecurityUtils.getCurrentUserLogin()
             .flatMap(userRepository::findOneByLogin)
-            .publishOn(Schedulers.boundedElastic())
-            .map(user -> {
-                String currentEncryptedPassword = user.getPassword();
-                if (!passwordEncoder.matches(currentClearTextPassword, currentEncryptedPassword)) {
-                    throw new InvalidPasswordException();
-                }
-                String encryptedPassword = passwordEncoder.encode(newPassword);
-                user.setPassword(encryptedPassword);
-                return user;
-            })
+            .flatMap(user ->
+                passwordHashing.hash(() -> {
+                    String currentEncryptedPassword = user.getPassword();
+                    if (!passwordEncoder.matches(currentClearTextPassword, currentEncryptedPassword)) {
+                        throw new InvalidPasswordException();
+                    }
+                    String encryptedPassword = passwordEncoder.encode(newPassword);
+                    user.setPassword(encryptedPassword);
+                    return user;
+                })
+            )
             .flatMap(this::saveUser)
             .doOnNext(user -> LOG.debug("Changed password for User: {}", user))
             .then();
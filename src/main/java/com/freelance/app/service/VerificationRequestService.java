@@ -68,10 +68,10 @@ public class VerificationRequestService {
     @Transactional(readOnly = true)
     public Mono<List<VerificationRequestDTO>> getMyVerificationRequests(Pageable pageable, VerificationRequestCriteria criteria) {
         return profileHelper
-            .getCurrentProfile()
-            .flatMap(profile -> {
+            .getCurrentProfileId()
+            .flatMap(currentProfileId -> {
                 LongFilter profileId = new LongFilter();
-                profileId.setEquals(profile.getId());
+                profileId.setEquals(currentProfileId);
                 criteria.setProfileId(profileId);
                 return verificationRequestRepository.findByCriteriaDTO(criteria, pageable).collectList();
             });
@@ -193,7 +193,7 @@ public class VerificationRequestService {
             .findById(verificationRequest.getProfileId())
             .flatMap(profile -> {
                 profile.setVerified(true);
-                return profileRepository.save(profile);
+                return profileRepository.save(profile).doOnSuccess(_ -> profileHelper.evictProfile(profile.getId()));
             })
             .then();
     }
@@ -1,3 +1,5 @@
 package com.freelance.app.service.dto;
 
-public record ConversationDTO(Long conversationId, String lastMessage, Boolean isPersonal, String receiverName) {}
+import java.time.Instant;
+
+public record ConversationDTO(Long conversationId, String lastMessage, Instant lastMessageAt, Integer unreadCount, String receiverName) {}
@@ -1,3 +1,3 @@
 package com.freelance.app.service.dto;
 
-public record OfferMediaDTO(Long id, String imageBase64) {}
+public record OfferMediaDTO(Long id, String url) {}
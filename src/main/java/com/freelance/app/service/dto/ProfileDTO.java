@@ -1,5 +1,7 @@
 package com.freelance.app.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.freelance.app.domain.FileObject;
 import com.freelance.app.domain.enumeration.ProfileType;
 import java.time.Instant;
 import java.util.Set;
@@ -15,9 +17,13 @@ public class ProfileDTO {
     private Boolean verified;
     private Double rating;
     private Set<SkillShortDTO> skills;
-    private String imageBase64;
+    private String imageUrl;
     private Long profilePictureId;
 
+    // metadata of the picture, only used to resolve imageUrl
+    @JsonIgnore
+    private FileObject profilePicture;
+
     public Long getId() {
         return id;
     }
@@ -82,12 +88,12 @@ public class ProfileDTO {
         this.skills = skills;
     }
 
-    public String getImageBase64() {
-        return imageBase64;
+    public String getImageUrl() {
+        return imageUrl;
     }
 
-    public void setImageBase64(String imageBase64) {
-        this.imageBase64 = imageBase64;
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
     }
 
     public Long getProfilePictureId() {
@@ -98,6 +104,14 @@ public class ProfileDTO {
         this.profilePictureId = profilePictureId;
     }
 
+    public FileObject getProfilePicture() {
+        return profilePicture;
+    }
+
+    public void setProfilePicture(FileObject profilePicture) {
+        this.profilePicture = profilePicture;
+    }
+
     public Double getRating() {
         return rating;
     }
@@ -0,0 +1,12 @@
+package com.freelance.app.service.dto;
+
+/**
+ * The read mark of a participant of a conversation.
+ *
+ * @param conversationId the conversation that was read.
+ * @param readerId the participant who read the conversation.
+ * @param otherId the other participant.
+ * @param messageId the last message read.
+ * @param moved whether the mark moved with the last write.
+ */
+public record ReadMarkDTO(Long conversationId, Long readerId, Long otherId, Long messageId, boolean moved) {}
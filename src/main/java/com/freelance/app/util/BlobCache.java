@@ -0,0 +1,226 @@
+package com.freelance.app.util;
+
+import com.freelance.app.config.ApplicationProperties;
+import com.freelance.app.domain.FileObject;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Size-bounded on-disk cache of MinIO objects, keyed by bucket and object key.
+ * <p>
+ * The index lives in memory and is ordered by access, the least recently used files are deleted once the cache grows
+ * past its maximum size. A file is only added after its SHA-256 matched the checksum stored on the {@link FileObject},
+ * and a lookup with a different checksum drops the stale copy. Files left by a previous run are deleted on startup
+ * because the index does not survive a restart.
+ */
+@Component
+public class BlobCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BlobCache.class);
+
+    private static final String METER_PREFIX = "blob.cache.";
+
+    private static final Pattern OWN_FILE = Pattern.compile("[0-9a-f]{64}|blob.*\\.tmp");
+
+    private final MinioUtil minioUtil;
+    private final Path directory;
+    private final long maxSize;
+    private final long maxEntrySize;
+    private final boolean enabled;
+
+    // guarded by this
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(256, 0.75f, true);
+    private long size;
+
+    private final Map<String, Mono<Path>> loading = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    record Entry(Path path, long size, String checksum) {}
+
+    public BlobCache(MinioUtil minioUtil, ApplicationProperties applicationProperties, MeterRegistry registry) {
+        ApplicationProperties.BlobCache properties = applicationProperties.getBlobCache();
+        this.minioUtil = minioUtil;
+        this.directory = Path.of(properties.getDirectory());
+        this.maxSize = properties.getMaxSize().toBytes();
+        this.maxEntrySize = Math.min(properties.getMaxEntrySize().toBytes(), maxSize);
+        this.enabled = properties.isEnabled() && prepareDirectory(directory);
+
+        this.hits = requests("hit").register(registry);
+        this.misses = requests("miss").register(registry);
+        this.evictions = Counter.builder(METER_PREFIX + "evictions").description("Files evicted from the blob cache").register(registry);
+        Gauge.builder(METER_PREFIX + "size", this, BlobCache::currentSize)
+            .baseUnit("bytes")
+            .description("Bytes stored in the blob cache")
+            .register(registry);
+        Gauge.builder(METER_PREFIX + "entries", this, BlobCache::currentEntries)
+            .description("Files stored in the blob cache")
+            .register(registry);
+    }
+
+    private static Counter.Builder requests(String result) {
+        return Counter.builder(METER_PREFIX + "requests").description("Blob cache lookups").tag("result", result);
+    }
+
+    /**
+     * Get the local copy of a file, downloading it from MinIO on a miss. Concurrent misses for the same object share
+     * one download.
+     *
+     * @param file the file to read.
+     * @return the path of the local copy, or empty if the file is not cacheable or could not be downloaded.
+     */
+    public Mono<Path> get(FileObject file) {
+        if (!enabled || file.getFileSize() == null || file.getFileSize() > maxEntrySize) {
+            return Mono.empty();
+        }
+
+        String key = file.getBucket() + "/" + file.getObjectKey();
+        Entry entry = lookup(key, file.getChecksum());
+        if (entry != null) {
+            hits.increment();
+            return Mono.just(entry.path());
+        }
+
+        misses.increment();
+        return loading.computeIfAbsent(key, k -> load(k, file).doFinally(_ -> loading.remove(k)).cache());
+    }
+
+    private synchronized Entry lookup(String key, String checksum) {
+        Entry entry = index.get(key);
+        if (entry != null && checksum != null && !checksum.equals(entry.checksum())) {
+            index.remove(key);
+            size -= entry.size();
+            deleteQuietly(entry.path());
+            return null;
+        }
+        return entry;
+    }
+
+    private Mono<Path> load(String key, FileObject file) {
+        return Mono.fromCallable(() -> Files.createTempFile(directory, "blob", ".tmp"))
+            .flatMap(tmp -> download(key, file, tmp).doFinally(_ -> deleteQuietly(tmp)))
+            .onErrorResume(e -> {
+                LOG.warn("Could not cache {}: {}", key, e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    private Mono<Path> download(String key, FileObject file, Path tmp) {
+        MessageDigest digest = sha256();
+        Flux<DataBuffer> content = minioUtil
+            .download(file.getBucket(), file.getObjectKey())
+            .doOnNext(buffer -> {
+                try (DataBuffer.ByteBufferIterator it = buffer.readableByteBuffers()) {
+                    it.forEachRemaining(digest::update);
+                }
+            });
+
+        return DataBufferUtils.write(content, tmp).then(
+            Mono.fromCallable(() -> {
+                String checksum = HexFormat.of().formatHex(digest.digest());
+                if (file.getChecksum() != null && !file.getChecksum().equals(checksum)) {
+                    throw new IOException("Checksum mismatch, expected " + file.getChecksum() + " but was " + checksum);
+                }
+                Path target = directory.resolve(fileName(key));
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                put(key, new Entry(target, Files.size(target), checksum));
+                return target;
+            })
+        );
+    }
+
+    private void put(String key, Entry entry) {
+        List<Path> evicted = new ArrayList<>();
+        synchronized (this) {
+            Entry previous = index.put(key, entry);
+            if (previous != null) {
+                size -= previous.size();
+            }
+            size += entry.size();
+
+            Iterator<Map.Entry<String, Entry>> eldest = index.entrySet().iterator();
+            while (size > maxSize && eldest.hasNext()) {
+                Map.Entry<String, Entry> candidate = eldest.next();
+                if (Objects.equals(candidate.getKey(), key)) {
+                    continue;
+                }
+                eldest.remove();
+                size -= candidate.getValue().size();
+                evicted.add(candidate.getValue().path());
+            }
+        }
+        // readers that already opened an evicted file keep reading it, the space is freed when they close it
+        evicted.forEach(BlobCache::deleteQuietly);
+        evictions.increment(evicted.size());
+    }
+
+    synchronized long currentSize() {
+        return size;
+    }
+
+    synchronized int currentEntries() {
+        return index.size();
+    }
+
+    static String fileName(String key) {
+        return HexFormat.of().formatHex(sha256().digest(key.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean prepareDirectory(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            // only our own files, the directory may be shared
+            DirectoryStream.Filter<Path> ownFiles = path -> OWN_FILE.matcher(path.getFileName().toString()).matches();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, ownFiles)) {
+                files.forEach(BlobCache::deleteQuietly);
+            }
+            return true;
+        } catch (IOException e) {
+            LOG.warn("Blob cache disabled, could not prepare {}: {}", directory, e.getMessage());
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOG.debug("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.freelance.app.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import reactor.core.publisher.Mono;
+
+/**
+ * Size-bounded in-memory cache whose entries expire a fixed time after they were loaded.
+ * <p>
+ * The least recently used entries are dropped once the cache is full. Concurrent misses for the same key share one
+ * load, and a load that overlaps an invalidation is not cached so an invalidated value cannot come back. Empty results
+ * and errors are never cached.
+ *
+ * @param <K> the key type.
+ * @param <V> the value type.
+ */
+public class ExpiringCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    // guarded by this
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final Map<K, Mono<V>> loading = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    private record Entry<V>(V value, long expiresAt) {}
+
+    public ExpiringCache(String name, int maxEntries, Duration ttl, MeterRegistry registry) {
+        this(name, maxEntries, ttl, registry, System::nanoTime);
+    }
+
+    ExpiringCache(String name, int maxEntries, Duration ttl, MeterRegistry registry, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(Math.min(maxEntries, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > ExpiringCache.this.maxEntries;
+            }
+        };
+
+        this.hits = gets(name, "hit").register(registry);
+        this.misses = gets(name, "miss").register(registry);
+        Gauge.builder("cache.size", this, ExpiringCache::size).tag("cache", name).description("Entries in the cache").register(registry);
+    }
+
+    private static Counter.Builder gets(String name, String result) {
+        return Counter.builder("cache.gets").description("Cache lookups").tag("cache", name).tag("result", result);
+    }
+
+    /**
+     * Get the value of a key, loading it on a miss.
+     *
+     * @param key the key.
+     * @param loader loads the value of a key, an empty result is passed on without being cached.
+     * @return the cached or loaded value.
+     */
+    public Mono<V> get(K key, Function<K, Mono<V>> loader) {
+        V cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return Mono.just(cached);
+        }
+
+        misses.increment();
+        return loading.computeIfAbsent(key, k -> load(k, loader));
+    }
+
+    private Mono<V> load(K key, Function<K, Mono<V>> loader) {
+        long generation = invalidations.get();
+        AtomicReference<Mono<V>> self = new AtomicReference<>();
+        // only removes itself, a load started after an invalidation may already have replaced it
+        Mono<V> load = loader
+            .apply(key)
+            .doOnNext(value -> put(key, value, generation))
+            .doFinally(_ -> loading.remove(key, self.get()))
+            .cache();
+        self.set(load);
+        return load;
+    }
+
+    /**
+     * @return the cached value of a key, or {@code null} if it is not cached.
+     */
+    public V getIfPresent(K key) {
+        return lookup(key);
+    }
+
+    public void invalidate(K key) {
+        invalidations.incrementAndGet();
+        loading.remove(key);
+        synchronized (this) {
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        loading.clear();
+        synchronized (this) {
+            entries.clear();
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized V lookup(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.expiresAt() > 0) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    private synchronized void put(K key, V value, long generation) {
+        if (invalidations.get() == generation) {
+            entries.put(key, new Entry<>(value, clock.getAsLong() + ttlNanos));
+        }
+    }
+}
@@ -3,21 +3,26 @@ package com.freelance.app.util;
 import com.freelance.app.config.ApplicationProperties;
 import com.freelance.app.domain.FileObject;
 import com.freelance.app.repository.FileObjectRepository;
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
+import com.freelance.app.repository.FileRenditionRepository;
+import com.freelance.app.web.rest.errors.BadRequestAlertException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 @Component
 public class FileProcessUtil {
@@ -25,11 +30,21 @@ public class FileProcessUtil {
     private final FileObjectRepository fileObjectRepository;
     private final ApplicationProperties applicationProperties;
     private final MinioUtil minioUtil;
+    private final ImageRenditionUtil imageRenditionUtil;
+    private final FileRenditionRepository fileRenditionRepository;
 
-    public FileProcessUtil(FileObjectRepository fileObjectRepository, ApplicationProperties applicationProperties, MinioUtil minioUtil) {
+    public FileProcessUtil(
+        FileObjectRepository fileObjectRepository,
+        ApplicationProperties applicationProperties,
+        MinioUtil minioUtil,
+        ImageRenditionUtil imageRenditionUtil,
+        FileRenditionRepository fileRenditionRepository
+    ) {
         this.fileObjectRepository = fileObjectRepository;
         this.applicationProperties = applicationProperties;
         this.minioUtil = minioUtil;
+        this.imageRenditionUtil = imageRenditionUtil;
+        this.fileRenditionRepository = fileRenditionRepository;
     }
 
     public Mono<FileObject> processFile(FilePart file, String login, String destination) {
@@ -41,84 +56,122 @@ public class FileProcessUtil {
             .orElse("application/octet-stream");
         final String objectKey = "users/%s/%s/%s.%s".formatted(login, destination, UUID.randomUUID(), ext);
 
-        return DataBufferUtils.join(file.content()).flatMap(buf -> {
-            byte[] bytes = new byte[buf.readableByteCount()];
-            buf.read(bytes);
-            DataBufferUtils.release(buf);
+        final long maxSize = applicationProperties.getMinio().getMaxUploadSize().toBytes();
+        final long partSize = applicationProperties.getMinio().getUploadPartSize().toBytes();
 
-            String checksum = sha256(bytes);
-            long size = bytes.length;
+        final MessageDigest digest = sha256();
+        final AtomicLong size = new AtomicLong();
 
-            Mono<Void> uploadMono = Mono.fromCallable(() -> {
-                minioUtil.createBucketIfMissing(bucket);
-                try (InputStream in = new ByteArrayInputStream(bytes)) {
-                    minioUtil.uploadFile(bucket, objectKey, in);
-                }
-                return (Void) null;
-            }).subscribeOn(Schedulers.boundedElastic());
-
-            return uploadMono.then(
-                fileObjectRepository.save(
-                    new FileObject()
-                        .bucket(bucket)
-                        .objectKey(objectKey)
-                        .contentType(contentType)
-                        .fileSize(size)
-                        .checksum(checksum)
-                        .durationSeconds(0)
+        Flux<DataBuffer> content = DataBufferUtils.takeUntilByteCount(file.content(), maxSize + 1).doOnNext(buf -> {
+            size.addAndGet(buf.readableByteCount());
+            try (DataBuffer.ByteBufferIterator it = buf.readableByteBuffers()) {
+                it.forEachRemaining(digest::update);
+            }
+        });
+
+        Mono<Void> uploadMono = minioUtil
+            .createBucketIfMissing(bucket)
+            .then(minioUtil.uploadStream(bucket, objectKey, content, contentType, partSize))
+            .then(
+                Mono.defer(() ->
+                    size.get() > maxSize
+                        ? minioUtil.delete(bucket, objectKey).then(Mono.error(fileTooLarge()))
+                        : Mono.empty()
                 )
             );
-        });
+
+        return uploadMono.then(
+            Mono.defer(() -> {
+                String checksum = HexFormat.of().formatHex(digest.digest());
+                return fileObjectRepository
+                    .acquireByChecksum(bucket, checksum)
+                    .flatMap(existing -> removeObject(bucket, objectKey).thenReturn(existing))
+                    .switchIfEmpty(
+                        Mono.defer(() ->
+                            fileObjectRepository
+                                .save(
+                                    new FileObject()
+                                        .bucket(bucket)
+                                        .objectKey(objectKey)
+                                        .contentType(contentType)
+                                        .fileSize(size.get())
+                                        .checksum(checksum)
+                                        .durationSeconds(0)
+                                        .refCount(1)
+                                )
+                                .flatMap(saved -> imageRenditionUtil.scheduleRenditions(saved).thenReturn(saved))
+                        )
+                    );
+            })
+        );
     }
 
-    private static String sha256(byte[] data) {
+    private static BadRequestAlertException fileTooLarge() {
+        return new BadRequestAlertException("File exceeds the maximum upload size", "FileObject", "fileTooLarge");
+    }
+
+    private static MessageDigest sha256() {
         try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            md.update(data);
-            return HexFormat.of().formatHex(md.digest());
+            return MessageDigest.getInstance("SHA-256");
         } catch (NoSuchAlgorithmException e) {
             throw new IllegalStateException(e);
         }
     }
 
+    /**
+     * Release one reference to each of the given files. Identical uploads share a file object, so the MinIO objects and
+     * the row are only deleted once the last reference is gone.
+     *
+     * @param fileIds the ids of the released files, an id appears once per released reference.
+     */
     public Mono<Void> deleteFiles(List<Long> fileIds) {
         if (fileIds == null || fileIds.isEmpty()) {
             return Mono.empty();
         }
 
         return fileObjectRepository
-            .findAllById(fileIds)
+            .releaseByIds(fileIds.toArray(Long[]::new))
+            .filter(file -> file.getRefCount() <= 0)
+            .map(FileObject::getId)
             .collectList()
-            .flatMap(files -> {
-                if (files.isEmpty()) {
+            .flatMap(unreferenced -> {
+                if (unreferenced.isEmpty()) {
                     return Mono.empty();
                 }
+                Long[] ids = unreferenced.toArray(Long[]::new);
+
+                // renditions are loaded first, their rows go away with the file object
+                return fileRenditionRepository
+                    .findByFileIds(ids)
+                    .collectList()
+                    .flatMap(renditions ->
+                        fileObjectRepository
+                            .deleteUnreferencedByIds(ids)
+                            .collectList()
+                            .flatMap(deleted -> {
+                                Set<Long> deletedIds = deleted.stream().map(FileObject::getId).collect(Collectors.toSet());
+
+                                Map<String, List<String>> objectsByBucket = Stream.concat(
+                                    renditions
+                                        .stream()
+                                        .filter(rendition -> deletedIds.contains(rendition.getFileId()))
+                                        .map(rendition -> Map.entry(rendition.getBucket(), rendition.getObjectKey())),
+                                    deleted.stream().map(file -> Map.entry(file.getBucket(), file.getObjectKey()))
+                                ).collect(
+                                    Collectors.groupingBy(Map.Entry::getKey, Collectors.mapping(Map.Entry::getValue, Collectors.toList()))
+                                );
 
-                Mono<Void> deleteFromMinio = Flux.fromIterable(files)
-                    .flatMap(
-                        file ->
-                            Mono.fromRunnable(() -> {
-                                try {
-                                    minioUtil.delete(file.getBucket(), file.getObjectKey());
-                                } catch (Exception e) {
-                                    throw new RuntimeException(
-                                        "MinIO delete failed for id=" +
-                                        file.getId() +
-                                        " bucket=" +
-                                        file.getBucket() +
-                                        " key=" +
-                                        file.getObjectKey(),
-                                        e
-                                    );
-                                }
-                            }).subscribeOn(Schedulers.boundedElastic()),
-                        8
-                    )
-                    .then();
-
-                Mono<Void> deleteFromDb = fileObjectRepository.deleteAll(files);
-
-                return deleteFromMinio.then(deleteFromDb);
+                                return Flux.fromIterable(objectsByBucket.entrySet())
+                                    .concatMap(objects -> minioUtil.deleteAll(objects.getKey(), objects.getValue()))
+                                    .then();
+                            })
+                    );
             });
     }
+
+    private Mono<Void> removeObject(String bucket, String objectKey) {
+        return minioUtil
+            .delete(bucket, objectKey)
+            .onErrorMap(e -> new RuntimeException("MinIO delete failed for bucket=" + bucket + " key=" + objectKey, e));
+    }
 }
@@ -1,12 +1,17 @@
 package com.freelance.app.util;
 
+import com.freelance.app.domain.FileObject;
+import com.freelance.app.domain.FileRendition;
 import com.freelance.app.repository.FileObjectRepository;
+import com.freelance.app.repository.FileRenditionRepository;
 import com.freelance.app.repository.OfferMediaRepository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.ToIntFunction;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 import reactor.util.function.Tuple2;
 import reactor.util.function.Tuples;
 
@@ -15,29 +20,75 @@ public class ImageHelper {
 
     private final OfferMediaRepository offerMediaRepository;
     private final FileObjectRepository fileObjectRepository;
-    private final MinioUtil minioUtil;
+    private final FileRenditionRepository fileRenditionRepository;
+    private final PresignedUrlCache presignedUrlCache;
 
-    public ImageHelper(OfferMediaRepository offerMediaRepository, FileObjectRepository fileObjectRepository, MinioUtil minioUtil) {
+    public ImageHelper(
+        OfferMediaRepository offerMediaRepository,
+        FileObjectRepository fileObjectRepository,
+        FileRenditionRepository fileRenditionRepository,
+        PresignedUrlCache presignedUrlCache
+    ) {
         this.offerMediaRepository = offerMediaRepository;
         this.fileObjectRepository = fileObjectRepository;
-        this.minioUtil = minioUtil;
+        this.fileRenditionRepository = fileRenditionRepository;
+        this.presignedUrlCache = presignedUrlCache;
+    }
+
+    /**
+     * Helper method for resolving the urls of images displayed at a known size.
+     * <p>
+     * The renditions of all files are loaded with one query and each file is served by its smallest rendition that is
+     * at least as wide as requested, or by the original when there is none.
+     *
+     * @param files the images to resolve.
+     * @param minWidth the width each file is displayed at.
+     * @return presigned urls by file object id.
+     */
+    public Mono<Map<Long, String>> fetchImageUrls(Collection<FileObject> files, ToIntFunction<FileObject> minWidth) {
+        if (files.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        Long[] fileIds = files.stream().map(FileObject::getId).toArray(Long[]::new);
+        return fileRenditionRepository
+            .findByFileIds(fileIds)
+            .collectMultimap(FileRendition::getFileId)
+            .flatMapMany(renditions ->
+                Flux.fromIterable(files).flatMap(file ->
+                    ImageRenditionUtil.pick(renditions.getOrDefault(file.getId(), List.of()), minWidth.applyAsInt(file))
+                        .map(rendition -> presignedUrlCache.getUrl(rendition.getBucket(), rendition.getObjectKey()))
+                        .orElseGet(() -> presignedUrlCache.getUrl(file))
+                        .map(url -> Tuples.of(file.getId(), url))
+                )
+            )
+            .collectMap(Tuple2::getT1, Tuple2::getT2);
+    }
+
+    /**
+     * Helper method for resolving the url of a single image displayed at a known size.
+     *
+     * @param file the image to resolve.
+     * @param minWidth the width the file is displayed at.
+     * @return the presigned url.
+     */
+    public Mono<String> fetchImageUrl(FileObject file, int minWidth) {
+        return fetchImageUrls(List.of(file), f -> minWidth).mapNotNull(urls -> urls.get(file.getId()));
     }
 
     /**
      * Helper method for fetching images for an offer with its id from file object entity.
+     * <p>
+     * Videos are presigned like images: a {@code <video>} element cannot send the bearer token the streaming endpoint
+     * needs, and MinIO honours range requests on presigned urls, so they still play and seek progressively.
      *
      * @param offerId id of the offer to find the images.
-     * @return list of images in base64 along with id from file object entity.
+     * @return presigned image urls along with id from file object entity.
      */
     public Mono<Map<Long, String>> fetchOfferMediaImagesWithId(Long offerId) {
         return offerMediaRepository
             .findByOffer(offerId)
-            .flatMap(media -> fileObjectRepository.findById(media.getFileId()).map(fileObject -> Tuples.of(fileObject.getId(), fileObject)))
-            .flatMap(tuple ->
-                Mono.fromCallable(() -> minioUtil.getImageAsBase64(tuple.getT2().getBucket(), tuple.getT2().getObjectKey()))
-                    .subscribeOn(Schedulers.boundedElastic())
-                    .map(base64 -> Tuples.of(tuple.getT1(), base64))
-            )
+            .flatMap(media -> fileObjectRepository.findById(media.getFileId()))
+            .flatMap(fileObject -> presignedUrlCache.getUrl(fileObject).map(url -> Tuples.of(fileObject.getId(), url)))
             .collectMap(Tuple2::getT1, Tuple2::getT2);
     }
 
@@ -45,13 +96,13 @@ public class ImageHelper {
      * Helper method for fetching offer images.
      *
      * @param offerId id of the offer to fetch the images.
-     * @return list of images in base64.
+     * @return list of presigned image urls.
      */
     public Mono<List<String>> fetchOfferMediaImages(Long offerId) {
         return offerMediaRepository
             .findByOffer(offerId)
             .flatMap(media -> fileObjectRepository.findById(media.getFileId()))
-            .map(fileObject -> minioUtil.getImageAsBase64(fileObject.getBucket(), fileObject.getObjectKey()))
+            .flatMap(presignedUrlCache::getUrl)
             .collectList();
     }
 }
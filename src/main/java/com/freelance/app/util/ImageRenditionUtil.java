@@ -0,0 +1,217 @@
+package com.freelance.app.util;
+
+import com.freelance.app.config.ApplicationProperties;
+import com.freelance.app.domain.FileObject;
+import com.freelance.app.domain.FileRendition;
+import com.freelance.app.repository.FileRenditionRepository;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Iterator;
+import java.util.Set;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Generates fixed-size renditions of uploaded JPEG/PNG images and stores them next to the original in MinIO.
+ * <p>
+ * Decoding and scaling run on a dedicated bounded worker pool, so a burst of uploads cannot starve other blocking work;
+ * when its queue is full the renditions are skipped and the original keeps being served. Images with more than
+ * {@code application.renditions.max-pixels} pixels are not decoded at all.
+ */
+@Component
+public class ImageRenditionUtil implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImageRenditionUtil.class);
+
+    private static final Set<String> SUPPORTED_TYPES = Set.of("image/jpeg", "image/png");
+
+    private final MinioUtil minioUtil;
+    private final FileRenditionRepository fileRenditionRepository;
+    private final List<Integer> widths;
+    private final long maxPixels;
+    private final Scheduler scheduler;
+
+    public ImageRenditionUtil(
+        MinioUtil minioUtil,
+        FileRenditionRepository fileRenditionRepository,
+        ApplicationProperties applicationProperties
+    ) {
+        ApplicationProperties.Renditions renditions = applicationProperties.getRenditions();
+        this.minioUtil = minioUtil;
+        this.fileRenditionRepository = fileRenditionRepository;
+        this.widths = renditions.getWidths().stream().sorted().toList();
+        this.maxPixels = renditions.getMaxPixels();
+        this.scheduler = Schedulers.newBoundedElastic(renditions.getWorkerThreads(), renditions.getQueueCapacity(), "image-rendition");
+    }
+
+    public static boolean supports(String contentType) {
+        return contentType != null && SUPPORTED_TYPES.contains(contentType);
+    }
+
+    /**
+     * Pick the smallest rendition that is at least {@code minWidth} wide.
+     *
+     * @param renditions the renditions of a file.
+     * @param minWidth the width the client displays the image at.
+     * @return the rendition, or empty if the original should be used.
+     */
+    public static Optional<FileRendition> pick(Collection<FileRendition> renditions, int minWidth) {
+        return renditions.stream().filter(r -> r.getWidth() >= minWidth).min(Comparator.comparing(FileRendition::getWidth));
+    }
+
+    /**
+     * Generate the renditions of a freshly uploaded image in the background, once the transaction that stores it is
+     * committed. The renditions reference the original, they are not generated if it is rolled back.
+     *
+     * @param original the stored original.
+     * @return completes once the generation is started or registered to start after the commit.
+     */
+    public Mono<Void> scheduleRenditions(FileObject original) {
+        if (!supports(original.getContentType())) {
+            return Mono.empty();
+        }
+        return TransactionSynchronizationManager.forCurrentTransaction()
+            .filter(TransactionSynchronizationManager::isSynchronizationActive)
+            .doOnNext(synchronization ->
+                synchronization.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCommit() {
+                            return Mono.fromRunnable(() -> startRenditions(original));
+                        }
+                    }
+                )
+            )
+            .onErrorResume(NoTransactionException.class, _ -> Mono.empty())
+            .switchIfEmpty(Mono.fromRunnable(() -> startRenditions(original)))
+            .then();
+    }
+
+    private void startRenditions(FileObject original) {
+        createRenditions(original)
+            .count()
+            .subscribe(
+                count -> LOG.debug("Created {} renditions for file {}", count, original.getId()),
+                e -> LOG.warn("Could not create renditions for file {}: {}", original.getId(), e.getMessage())
+            );
+    }
+
+    /**
+     * Generate and persist the renditions of an image that are smaller than the original.
+     *
+     * @param original the stored original.
+     * @return the saved renditions.
+     */
+    public Flux<FileRendition> createRenditions(FileObject original) {
+        return DataBufferUtils.join(minioUtil.download(original.getBucket(), original.getObjectKey()))
+            .publishOn(scheduler)
+            .map(content -> readImage(original, content, maxPixels))
+            .flatMapMany(image ->
+                Flux.fromIterable(widths)
+                    .filter(width -> width < image.getWidth())
+                    .concatMap(width ->
+                        Mono.fromCallable(() -> render(original, image, width))
+                            .subscribeOn(scheduler)
+                            .flatMap(rendered -> upload(original, rendered))
+                    )
+            )
+            .concatMap(fileRenditionRepository::save);
+    }
+
+    private Mono<FileRendition> upload(FileObject original, Rendered rendered) {
+        FileRendition rendition = rendered.rendition();
+        return minioUtil
+            .uploadFile(rendition.getBucket(), rendition.getObjectKey(), rendered.content(), rendition.getContentType())
+            .thenReturn(rendition);
+    }
+
+    // the dimensions are read from the header, an image is only decoded if it fits in maxPixels
+    static BufferedImage readImage(FileObject original, DataBuffer content, long maxPixels) {
+        try (InputStream in = content.asInputStream(true); ImageInputStream stream = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = stream == null ? null : ImageIO.getImageReaders(stream);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Unreadable image " + original.getObjectKey());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new IOException("Image " + original.getObjectKey() + " has " + pixels + " pixels, more than " + maxPixels);
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Rendered(FileRendition rendition, byte[] content) {}
+
+    private Rendered render(FileObject original, BufferedImage image, int width) throws IOException {
+        boolean png = "image/png".equals(original.getContentType());
+        int height = Math.max(1, Math.round(image.getHeight() * (width / (float) image.getWidth())));
+
+        BufferedImage scaled = new BufferedImage(width, height, png ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(scaled, png ? "png" : "jpg", out);
+        byte[] bytes = out.toByteArray();
+
+        FileRendition rendition = new FileRendition()
+            .fileId(original.getId())
+            .width(width)
+            .height(height)
+            .bucket(original.getBucket())
+            .objectKey(renditionKey(original.getObjectKey(), width))
+            .contentType(original.getContentType())
+            .fileSize((long) bytes.length);
+        return new Rendered(rendition, bytes);
+    }
+
+    static String renditionKey(String objectKey, int width) {
+        int dot = objectKey.lastIndexOf('.');
+        if (dot <= objectKey.lastIndexOf('/')) {
+            return objectKey + "_" + width;
+        }
+        return objectKey.substring(0, dot) + "_" + width + objectKey.substring(dot);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+}
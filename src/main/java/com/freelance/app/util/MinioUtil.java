@@ -1,56 +1,273 @@
 package com.freelance.app.util;
 
 import io.minio.*;
-import io.minio.errors.*;
+import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.Part;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
-import org.apache.commons.io.IOUtils;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
+/**
+ * Reactive access to the MinIO object store.
+ * <p>
+ * Requests go through {@link MinioAsyncClient} and are exposed as {@link Mono}s backed by its futures. Object content is
+ * fetched with a {@link WebClient} GET on a short-lived presigned url, because the async client only hands out a blocking
+ * stream for the body. None of the calls block the calling thread.
+ */
 @Component
 public class MinioUtil {
 
-    private final MinioClient minio;
+    private static final Logger LOG = LoggerFactory.getLogger(MinioUtil.class);
 
-    public MinioUtil(MinioClient minio) {
+    private static final int DOWNLOAD_URL_EXPIRY_SECONDS = 60;
+
+    // the S3 limit for one multi-object delete
+    private static final int MAX_KEYS_PER_DELETE = 1000;
+    private static final int DELETE_ATTEMPTS = 3;
+    private static final Duration DELETE_RETRY_BACKOFF = Duration.ofMillis(200);
+
+    private final ReactiveMinioClient minio;
+    private final WebClient webClient;
+    private final Set<String> knownBuckets = ConcurrentHashMap.newKeySet();
+
+    public MinioUtil(ReactiveMinioClient minio, WebClient.Builder webClientBuilder) {
         this.minio = minio;
+        this.webClient = webClientBuilder.build();
     }
 
-    public void createBucketIfMissing(String bucket) throws Exception {
-        if (!minio.bucketExists(BucketExistsArgs.builder().bucket(bucket).build())) {
-            minio.makeBucket(MakeBucketArgs.builder().bucket(bucket).build());
+    public Mono<Void> createBucketIfMissing(String bucket) {
+        if (knownBuckets.contains(bucket)) {
+            return Mono.empty();
         }
+        return call(() -> minio.bucketExists(BucketExistsArgs.builder().bucket(bucket).build()))
+            .flatMap(exists -> exists ? Mono.empty() : call(() -> minio.makeBucket(MakeBucketArgs.builder().bucket(bucket).build())))
+            .doOnSuccess(_ -> knownBuckets.add(bucket))
+            .then();
+    }
+
+    public Mono<Void> uploadFile(String bucketName, String objectName, byte[] content, String contentType) {
+        return call(() ->
+            minio.putObject(
+                PutObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(objectName)
+                    .stream(new ByteArrayInputStream(content), content.length, -1)
+                    .contentType(contentType)
+                    .build()
+            )
+        ).then();
+    }
+
+    /**
+     * Upload a body of unknown length. The buffers are collected into parts of {@code partSize} bytes that are sent as
+     * a multipart upload one at a time as soon as they are full, so memory per upload is bounded by a few parts. A body
+     * smaller than one part is sent with a single request.
+     */
+    public Mono<Void> uploadStream(String bucketName, String objectName, Flux<DataBuffer> content, String contentType, long partSize) {
+        return chunk(content, Math.toIntExact(partSize))
+            .switchOnFirst((first, chunks) -> {
+                Chunk chunk = first.get();
+                if (chunk != null && chunk.last()) {
+                    return chunks.concatMap(c -> uploadFile(bucketName, objectName, c.data(), contentType));
+                }
+                return uploadMultipart(bucketName, objectName, chunks, contentType);
+            })
+            .then();
+    }
+
+    private Mono<Void> uploadMultipart(String bucket, String object, Flux<Chunk> chunks, String contentType) {
+        return call(() -> minio.createMultipartUpload(bucket, object, contentType)).flatMap(uploadId ->
+            chunks
+                .index()
+                .concatMap(
+                    part -> {
+                        int partNumber = Math.toIntExact(part.getT1() + 1);
+                        return call(() -> minio.uploadPart(bucket, object, uploadId, partNumber, part.getT2().data()));
+                    },
+                    1
+                )
+                .collectList()
+                .flatMap(parts -> call(() -> minio.completeMultipartUpload(bucket, object, uploadId, parts.toArray(Part[]::new))))
+                .onErrorResume(e ->
+                    call(() -> minio.abortMultipartUpload(bucket, object, uploadId))
+                        .onErrorComplete()
+                        .then(Mono.error(e))
+                )
+                .then()
+        );
+    }
+
+    public Flux<DataBuffer> download(String bucket, String object) {
+        return get(bucket, object, null);
+    }
+
+    public Flux<DataBuffer> download(String bucket, String object, long offset, long length) {
+        return get(bucket, object, "bytes=" + offset + "-" + (offset + length - 1));
+    }
+
+    private Flux<DataBuffer> get(String bucket, String object, String range) {
+        return getPresignedUrl(bucket, object, DOWNLOAD_URL_EXPIRY_SECONDS).flatMapMany(url ->
+            webClient
+                .get()
+                // already encoded and signed, it must not be encoded again
+                .uri(URI.create(url))
+                .headers(headers -> {
+                    if (range != null) {
+                        headers.set(HttpHeaders.RANGE, range);
+                    }
+                })
+                .retrieve()
+                .bodyToFlux(DataBuffer.class)
+        );
+    }
+
+    public Mono<Void> delete(String bucket, String object) {
+        return call(() -> minio.removeObject(RemoveObjectArgs.builder().bucket(bucket).object(object).build()));
+    }
+
+    /**
+     * Delete many objects with multi-object delete requests of up to 1000 keys. Keys the server reports as failed are
+     * logged and retried on their own, a request that fails as a whole is retried with backoff.
+     *
+     * @param bucket the bucket of the objects.
+     * @param objects the keys to delete.
+     * @return an error naming the keys that could still not be deleted after the last attempt.
+     */
+    public Mono<Void> deleteAll(String bucket, Collection<String> objects) {
+        return Flux.fromIterable(new LinkedHashSet<>(objects))
+            .buffer(MAX_KEYS_PER_DELETE)
+            .concatMap(batch -> deleteBatch(bucket, batch, 1))
+            .collectList()
+            .flatMap(failed ->
+                failed.isEmpty()
+                    ? Mono.empty()
+                    : Mono.error(new IOException("Could not delete " + failed.size() + " objects from " + bucket + ": " + failed))
+            );
+    }
+
+    private Flux<String> deleteBatch(String bucket, List<String> objects, int attempt) {
+        return call(() -> minio.deleteObjects(bucket, objects))
+            .retryWhen(Retry.backoff(DELETE_ATTEMPTS - 1, DELETE_RETRY_BACKOFF))
+            .flatMapMany(errors -> {
+                if (errors.isEmpty()) {
+                    return Flux.empty();
+                }
+                for (DeleteError error : errors) {
+                    LOG.warn("Could not delete {}/{} (attempt {}): {}", bucket, error.objectName(), attempt, error.message());
+                }
+                List<String> failed = errors.stream().map(DeleteError::objectName).toList();
+                if (attempt >= DELETE_ATTEMPTS) {
+                    return Flux.fromIterable(failed);
+                }
+                return Mono.delay(DELETE_RETRY_BACKOFF.multipliedBy(attempt)).flatMapMany(_ -> deleteBatch(bucket, failed, attempt + 1));
+            });
+    }
+
+    public Mono<StatObjectResponse> stat(String bucket, String object) {
+        return call(() -> minio.statObject(StatObjectArgs.builder().bucket(bucket).object(object).build()));
     }
 
-    public void uploadFile(String bucketName, String objectName, InputStream inputStream)
-        throws IOException, ServerException, InsufficientDataException, ErrorResponseException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
-        minio.putObject(
-            PutObjectArgs.builder().bucket(bucketName).object(objectName).stream(inputStream, inputStream.available(), -1).build()
+    /**
+     * Sign a GET url. The client is configured with its region, so signing is a local computation.
+     */
+    public Mono<String> getPresignedUrl(String bucket, String object, int expirySeconds) {
+        return Mono.fromCallable(() ->
+            minio.getPresignedObjectUrl(
+                GetPresignedObjectUrlArgs.builder().method(Method.GET).bucket(bucket).object(object).expiry(expirySeconds).build()
+            )
         );
     }
 
-    public InputStream download(String bucket, String object) throws Exception {
-        return minio.getObject(GetObjectArgs.builder().bucket(bucket).object(object).build());
+    @FunctionalInterface
+    private interface MinioCall<T> {
+        CompletableFuture<T> call() throws Exception;
     }
 
-    public void delete(String bucket, String object) throws Exception {
-        minio.removeObject(RemoveObjectArgs.builder().bucket(bucket).object(object).build());
+    private static <T> Mono<T> call(MinioCall<T> call) {
+        return Mono.defer(() -> {
+            try {
+                return Mono.fromFuture(call.call());
+            } catch (Exception e) {
+                return Mono.error(e);
+            }
+        });
     }
 
-    public StatObjectResponse stat(String bucket, String object) throws Exception {
-        return minio.statObject(StatObjectArgs.builder().bucket(bucket).object(object).build());
+    record Chunk(byte[] data, boolean last) {}
+
+    /**
+     * Cut a body into parts of exactly {@code partSize} bytes, the last one may be smaller. One full part is held back
+     * until more data arrives, so the last part can be flagged.
+     */
+    static Flux<Chunk> chunk(Flux<DataBuffer> content, int partSize) {
+        return Flux.defer(() -> {
+            Chunker chunker = new Chunker(partSize);
+            return content.concatMapIterable(chunker::append).concatWith(Flux.defer(() -> Flux.fromIterable(chunker.finish())));
+        });
     }
 
-    public String getImageAsBase64(String bucket, String object) {
-        try (InputStream stream = download(bucket, object)) {
-            byte[] imageBytes = IOUtils.toByteArray(stream);
-            return Base64.getEncoder().encodeToString(imageBytes);
-        } catch (Exception e) {
-            e.printStackTrace();
+    private static final class Chunker {
+
+        private final int partSize;
+        private byte[] current;
+        private int position;
+        private byte[] pending;
+
+        Chunker(int partSize) {
+            this.partSize = partSize;
+            this.current = new byte[partSize];
+        }
+
+        List<Chunk> append(DataBuffer buffer) {
+            List<Chunk> full = new ArrayList<>(1);
+            try {
+                while (buffer.readableByteCount() > 0) {
+                    int length = Math.min(buffer.readableByteCount(), partSize - position);
+                    buffer.read(current, position, length);
+                    position += length;
+                    if (position == partSize) {
+                        if (pending != null) {
+                            full.add(new Chunk(pending, false));
+                        }
+                        pending = current;
+                        current = new byte[partSize];
+                        position = 0;
+                    }
+                }
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+            return full;
+        }
+
+        List<Chunk> finish() {
+            if (pending == null) {
+                return List.of(new Chunk(Arrays.copyOf(current, position), true));
+            }
+            if (position == 0) {
+                return List.of(new Chunk(pending, true));
+            }
+            return List.of(new Chunk(pending, false), new Chunk(Arrays.copyOf(current, position), true));
         }
-        return null;
     }
 }
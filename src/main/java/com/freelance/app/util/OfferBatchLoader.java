@@ -0,0 +1,132 @@
+package com.freelance.app.util;
+
+import com.freelance.app.domain.FileObject;
+import com.freelance.app.domain.Offer;
+import com.freelance.app.domain.OfferMedia;
+import com.freelance.app.repository.FileObjectRepository;
+import com.freelance.app.repository.OfferMediaRepository;
+import com.freelance.app.repository.ProfileRepository;
+import com.freelance.app.service.dto.OfferShortDTO;
+import com.freelance.app.service.dto.ProfileDTO;
+import java.util.*;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Batch loader assembling {@link OfferShortDTO}s for a page of offers.
+ * <p>
+ * Instead of resolving owner and media per offer, the ids of the whole page are collected and owners (with skills and
+ * pictures), {@code offer_media} rows and the media {@code file_object} rows are each fetched with a single
+ * {@code = ANY(:ids)} query.
+ */
+@Component
+public class OfferBatchLoader {
+
+    private static final int OFFER_IMAGE_WIDTH = 480;
+    private static final int AVATAR_WIDTH = 160;
+
+    private final ProfileRepository profileRepository;
+    private final OfferMediaRepository offerMediaRepository;
+    private final FileObjectRepository fileObjectRepository;
+    private final ImageHelper imageHelper;
+
+    public OfferBatchLoader(
+        ProfileRepository profileRepository,
+        OfferMediaRepository offerMediaRepository,
+        FileObjectRepository fileObjectRepository,
+        ImageHelper imageHelper
+    ) {
+        this.profileRepository = profileRepository;
+        this.offerMediaRepository = offerMediaRepository;
+        this.fileObjectRepository = fileObjectRepository;
+        this.imageHelper = imageHelper;
+    }
+
+    /**
+     * Load the listing DTOs for a page of offers, keeping the order of the page.
+     *
+     * @param offers the offers of the page.
+     * @return the assembled short DTOs.
+     */
+    public Mono<List<OfferShortDTO>> load(List<Offer> offers) {
+        if (offers.isEmpty()) {
+            return Mono.just(List.of());
+        }
+
+        Long[] offerIds = offers.stream().map(Offer::getId).toArray(Long[]::new);
+        Long[] ownerIds = offers.stream().map(Offer::getOwnerId).filter(Objects::nonNull).distinct().toArray(Long[]::new);
+
+        Mono<Map<Long, ProfileDTO>> ownersMono = profileRepository.findDTOsByIds(ownerIds).collectMap(ProfileDTO::getId);
+        Mono<Map<Long, Collection<OfferMedia>>> mediaMono = offerMediaRepository
+            .findByOfferIds(offerIds)
+            .collectMultimap(OfferMedia::getOfferId);
+
+        return Mono.zip(ownersMono, mediaMono).flatMap(tuple -> {
+            Map<Long, ProfileDTO> owners = tuple.getT1();
+            Map<Long, Collection<OfferMedia>> mediaByOffer = tuple.getT2();
+
+            // the pictures of the owners were loaded with them
+            List<FileObject> avatars = owners.values().stream().map(ProfileDTO::getProfilePicture).filter(Objects::nonNull).toList();
+            Long[] mediaFileIds = mediaByOffer
+                .values()
+                .stream()
+                .flatMap(Collection::stream)
+                .map(OfferMedia::getFileId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toArray(Long[]::new);
+
+            return fetchImages(mediaFileIds, avatars).map(images -> assemble(offers, owners, mediaByOffer, images));
+        });
+    }
+
+    private Mono<Map<Long, String>> fetchImages(Long[] mediaFileIds, List<FileObject> avatars) {
+        Set<Long> avatarIds = avatars.stream().map(FileObject::getId).collect(Collectors.toSet());
+        Mono<List<FileObject>> mediaFiles = mediaFileIds.length == 0
+            ? Mono.just(List.of())
+            : fileObjectRepository.findAllByIds(mediaFileIds).collectList();
+        return mediaFiles.flatMap(files -> {
+            Map<Long, FileObject> all = new LinkedHashMap<>();
+            files.forEach(file -> all.put(file.getId(), file));
+            avatars.forEach(avatar -> all.put(avatar.getId(), avatar));
+            return imageHelper.fetchImageUrls(all.values(), file -> avatarIds.contains(file.getId()) ? AVATAR_WIDTH : OFFER_IMAGE_WIDTH);
+        });
+    }
+
+    private List<OfferShortDTO> assemble(
+        List<Offer> offers,
+        Map<Long, ProfileDTO> owners,
+        Map<Long, Collection<OfferMedia>> mediaByOffer,
+        Map<Long, String> images
+    ) {
+        owners
+            .values()
+            .forEach(owner -> {
+                if (owner.getProfilePictureId() != null) {
+                    owner.setImageUrl(images.get(owner.getProfilePictureId()));
+                }
+            });
+
+        List<OfferShortDTO> out = new ArrayList<>(offers.size());
+        for (Offer offer : offers) {
+            Set<String> offerImages = new HashSet<>();
+            for (OfferMedia media : mediaByOffer.getOrDefault(offer.getId(), List.of())) {
+                String image = images.get(media.getFileId());
+                if (image != null) {
+                    offerImages.add(image);
+                }
+            }
+
+            out.add(
+                new OfferShortDTO()
+                    .id(offer.getId())
+                    .name(offer.getName())
+                    .rating(offer.getRating())
+                    .owner(owners.get(offer.getOwnerId()))
+                    .offerImages(offerImages)
+            );
+        }
+        return out;
+    }
+}
@@ -0,0 +1,82 @@
+package com.freelance.app.util;
+
+import com.freelance.app.config.ApplicationProperties;
+import com.freelance.app.domain.FileObject;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Hands out presigned MinIO GET urls for stored files.
+ * <p>
+ * Urls are cached per bucket and object key and re-signed once 80% of their lifetime has elapsed, so the same url
+ * is returned across requests and clients can rely on browser caching.
+ */
+@Component
+public class PresignedUrlCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PresignedUrlCache.class);
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final MinioUtil minioUtil;
+    private final int expirySeconds;
+    private final Duration refreshAfter;
+    private final ConcurrentHashMap<String, PresignedUrl> urls = new ConcurrentHashMap<>();
+
+    record PresignedUrl(String url, Instant refreshAt) {}
+
+    public PresignedUrlCache(MinioUtil minioUtil, ApplicationProperties applicationProperties) {
+        this.minioUtil = minioUtil;
+        this.expirySeconds = applicationProperties.getMinio().getPresignedUrlExpirySeconds();
+        this.refreshAfter = Duration.ofSeconds(expirySeconds * 8L / 10);
+    }
+
+    /**
+     * Get a presigned url for a file object.
+     *
+     * @param fileObject the file to sign.
+     * @return the url, or empty if signing failed.
+     */
+    public Mono<String> getUrl(FileObject fileObject) {
+        return getUrl(fileObject.getBucket(), fileObject.getObjectKey());
+    }
+
+    /**
+     * Get a presigned url for an object.
+     *
+     * @param bucket the bucket of the object.
+     * @param objectKey the key of the object.
+     * @return the url, or empty if signing failed.
+     */
+    public Mono<String> getUrl(String bucket, String objectKey) {
+        String key = bucket + "/" + objectKey;
+        PresignedUrl cached = urls.get(key);
+        if (cached != null && Instant.now().isBefore(cached.refreshAt())) {
+            return Mono.just(cached.url());
+        }
+
+        return minioUtil
+            .getPresignedUrl(bucket, objectKey, expirySeconds)
+            .doOnNext(url -> put(key, url))
+            .onErrorResume(e -> {
+                LOG.warn("Could not presign url for {}: {}", key, e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    private void put(String key, String url) {
+        Instant now = Instant.now();
+        if (urls.size() >= MAX_ENTRIES) {
+            urls.values().removeIf(entry -> !now.isBefore(entry.refreshAt()));
+            if (urls.size() >= MAX_ENTRIES) {
+                urls.clear();
+            }
+        }
+        urls.put(key, new PresignedUrl(url, now.plus(refreshAfter)));
+    }
+}
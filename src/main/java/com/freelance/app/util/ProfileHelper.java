@@ -1,39 +1,188 @@
 package com.freelance.app.util;
 
+import com.freelance.app.config.ApplicationProperties;
 import com.freelance.app.domain.Profile;
 import com.freelance.app.repository.ProfileRepository;
 import com.freelance.app.repository.UserRepository;
 import com.freelance.app.security.SecurityUtils;
 import com.freelance.app.web.rest.errors.BadRequestAlertException;
 import com.freelance.app.web.rest.errors.NotFoundAlertException;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
+/**
+ * Resolves the profile of the current user.
+ * <p>
+ * The profile id of a login and the profile itself are cached across requests, and the current profile is resolved at
+ * most once per exchange that runs with {@link #requestScope(Context)}. A hit needs no query. The profile id a token
+ * carries is used without looking up its login, it is only checked when the profile is not cached. Callers get their own
+ * copy of a cached profile, changes to a profile must be followed by {@link #evictProfile(Long)}.
+ */
 @Component
 public class ProfileHelper {
 
     private static final String ENTITY_NAME = "User";
 
+    private static final String CURRENT_PROFILE = ProfileHelper.class.getName() + ".CURRENT_PROFILE";
+
     private final UserRepository userRepository;
     private final ProfileRepository profileRepository;
 
-    public ProfileHelper(UserRepository userRepository, ProfileRepository profileRepository) {
+    // login -> profile id, shared by requests and websocket handshakes
+    private final ExpiringCache<String, Long> profileIds;
+    private final ExpiringCache<Long, Profile> profiles;
+
+    public ProfileHelper(
+        UserRepository userRepository,
+        ProfileRepository profileRepository,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
         this.userRepository = userRepository;
         this.profileRepository = profileRepository;
+        ApplicationProperties.ProfileCache properties = applicationProperties.getProfileCache();
+        this.profileIds = new ExpiringCache<>("profile.ids", properties.getMaxEntries(), properties.getTtl(), registry);
+        this.profiles = new ExpiringCache<>("profiles", properties.getMaxEntries(), properties.getTtl(), registry);
+    }
+
+    /**
+     * Add the holder of the current profile of an exchange to its context.
+     */
+    public static Context requestScope(Context context) {
+        return context.put(CURRENT_PROFILE, new AtomicReference<Mono<Profile>>());
     }
 
     public Mono<Profile> getCurrentProfile() {
+        return Mono.deferContextual(context -> {
+            AtomicReference<Mono<Profile>> current = context.getOrDefault(CURRENT_PROFILE, null);
+            if (current == null) {
+                return resolveCurrentProfile();
+            }
+            Mono<Profile> resolved = current.get();
+            if (resolved == null) {
+                current.compareAndSet(null, resolveCurrentProfile().cache());
+                resolved = current.get();
+            }
+            return resolved;
+        });
+    }
+
+    private Mono<Profile> resolveCurrentProfile() {
+        return getCurrentProfileId().flatMap(profileId ->
+            getProfile(profileId).switchIfEmpty(
+                Mono.error(new NotFoundAlertException("Profile not found", profileId.toString(), "profileNotFound"))
+            )
+        );
+    }
+
+    /**
+     * Get the id of the current profile, taken from the token when it carries one.
+     *
+     * @return the profile id, or a {@link NotFoundAlertException} if the current user has no profile.
+     */
+    public Mono<Long> getCurrentProfileId() {
         return SecurityUtils.getCurrentUserLogin()
-            .flatMap(userRepository::findOneByLogin)
-            .switchIfEmpty(Mono.error(new NotFoundAlertException("User not found", ENTITY_NAME, "userNotFound")))
-            .flatMap(user ->
-                profileRepository
-                    .findByUserId(user.getId())
-                    .switchIfEmpty(Mono.error(new NotFoundAlertException("Profile not found", user.getId().toString(), "profileNotFound")))
-            );
+            .flatMap(login ->
+                SecurityUtils.getCurrentProfileId()
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(claimed -> getProfileId(login, claimed.orElse(null)))
+                    .switchIfEmpty(Mono.defer(() -> notFound(login)))
+            )
+            .switchIfEmpty(Mono.error(new NotFoundAlertException("User not found", ENTITY_NAME, "userNotFound")));
+    }
+
+    /**
+     * Get the id of the profile of a user, preferring the id its token carries.
+     * <p>
+     * The claim was issued for this login and profile ids are never reused, so it can only be stale: it is used as is
+     * while the login has no other cached profile and the claimed one is cached. Otherwise it is checked by loading the
+     * profile, and a claim for a deleted profile falls back to the current profile of the login.
+     *
+     * @param login the login of the user.
+     * @param claimedId the profile id the token carries, {@code null} if it carries none.
+     * @return the profile id, or empty if the user has no profile.
+     */
+    public Mono<Long> getProfileId(String login, Long claimedId) {
+        if (claimedId == null) {
+            return getProfileIdFromUserLogin(login);
+        }
+        Long known = profileIds.getIfPresent(login);
+        if (known != null) {
+            return Mono.just(known);
+        }
+        if (profiles.getIfPresent(claimedId) != null) {
+            return Mono.just(claimedId);
+        }
+        return getProfile(claimedId).map(Profile::getId).switchIfEmpty(Mono.defer(() -> getProfileIdFromUserLogin(login)));
+    }
+
+    private <T> Mono<T> notFound(String login) {
+        return userRepository
+            .findOneByLogin(login)
+            .flatMap(user -> Mono.error(new NotFoundAlertException("Profile not found", user.getId().toString(), "profileNotFound")));
     }
 
     public Mono<Profile> getProfileFromUserLogin(String login) {
-        return userRepository.findOneByLogin(login).flatMap(user -> profileRepository.findByUserId(user.getId()));
+        return getProfileIdFromUserLogin(login).flatMap(this::getProfile);
+    }
+
+    private Mono<Profile> getProfile(Long profileId) {
+        return profiles.get(profileId, profileRepository::findById).map(ProfileHelper::copy);
+    }
+
+    /**
+     * Get the id of the profile of a user, without a query once it is cached.
+     *
+     * @param login the login of the user.
+     * @return the profile id, or empty if the user has no profile.
+     */
+    public Mono<Long> getProfileIdFromUserLogin(String login) {
+        return profileIds.get(login, profileRepository::findIdByUserLogin);
+    }
+
+    /**
+     * Forget everything cached for a user, to be called when its profile is deleted or the user changes.
+     */
+    public void evict(String login) {
+        Long profileId = profileIds.getIfPresent(login);
+        profileIds.invalidate(login);
+        if (profileId != null) {
+            profiles.invalidate(profileId);
+        }
+    }
+
+    /**
+     * Forget the cached copy of a profile, to be called when it is saved or deleted.
+     */
+    public void evictProfile(Long profileId) {
+        profiles.invalidate(profileId);
+    }
+
+    // callers may change the profile they get, the cached one must stay as it was loaded
+    private static Profile copy(Profile profile) {
+        Profile copy = new Profile()
+            .id(profile.getId())
+            .firstName(profile.getFirstName())
+            .lastName(profile.getLastName())
+            .description(profile.getDescription())
+            .profileType(profile.getProfileType())
+            .user(profile.getUser())
+            .profilePicture(profile.getProfilePicture())
+            .skills(profile.getSkills() == null ? null : new HashSet<>(profile.getSkills()))
+            .verified(profile.getVerified());
+        copy.setRating(profile.getRating());
+        copy.setUserId(profile.getUserId());
+        copy.setProfilePictureId(profile.getProfilePictureId());
+        copy.setCreatedBy(profile.getCreatedBy());
+        copy.setCreatedDate(profile.getCreatedDate());
+        copy.setLastModifiedBy(profile.getLastModifiedBy());
+        copy.setLastModifiedDate(profile.getLastModifiedDate());
+        return copy;
     }
 }
@@ -0,0 +1,55 @@
+package com.freelance.app.util;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import io.minio.MinioAsyncClient;
+import io.minio.ObjectWriteResponse;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Part;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link MinioAsyncClient} that also exposes the multipart upload calls, so an upload of unknown length can be sent
+ * part by part as the request body arrives instead of through a blocking {@link java.io.InputStream}, and the
+ * multi-object delete, whose public {@code removeObjects} runs its requests while blocking the iterating thread.
+ */
+public class ReactiveMinioClient extends MinioAsyncClient {
+
+    public ReactiveMinioClient(MinioAsyncClient client) {
+        super(client);
+    }
+
+    public CompletableFuture<String> createMultipartUpload(String bucket, String object, String contentType) throws Exception {
+        Multimap<String, String> headers = HashMultimap.create();
+        headers.put("Content-Type", contentType);
+        return createMultipartUploadAsync(bucket, null, object, headers, null).thenApply(response -> response.result().uploadId());
+    }
+
+    public CompletableFuture<Part> uploadPart(String bucket, String object, String uploadId, int partNumber, byte[] data)
+        throws Exception {
+        return uploadPartAsync(bucket, null, object, data, data.length, uploadId, partNumber, null, null).thenApply(response ->
+            new Part(response.partNumber(), response.etag())
+        );
+    }
+
+    public CompletableFuture<ObjectWriteResponse> completeMultipartUpload(String bucket, String object, String uploadId, Part[] parts)
+        throws Exception {
+        return completeMultipartUploadAsync(bucket, null, object, uploadId, parts, null, null);
+    }
+
+    public CompletableFuture<Void> abortMultipartUpload(String bucket, String object, String uploadId) throws Exception {
+        return abortMultipartUploadAsync(bucket, null, object, uploadId, null, null).thenApply(response -> null);
+    }
+
+    /**
+     * Delete up to 1000 objects with one request.
+     *
+     * @return the keys that could not be deleted, with the reason.
+     */
+    public CompletableFuture<List<DeleteError>> deleteObjects(String bucket, List<String> objects) throws Exception {
+        List<DeleteObject> deletes = objects.stream().map(DeleteObject::new).toList();
+        return deleteObjectsAsync(bucket, null, deletes, true, false, null, null).thenApply(response -> response.result().errorList());
+    }
+}
@@ -0,0 +1,19 @@
+package com.freelance.app.web.filter;
+
+import com.freelance.app.util.ProfileHelper;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+public class CurrentProfileWebFilter implements WebFilter {
+
+    /**
+     * Resolves the current profile at most once per exchange, however many services ask for it.
+     */
+    @Override
+    public @NotNull Mono<Void> filter(@NotNull ServerWebExchange exchange, @NotNull WebFilterChain chain) {
+        return chain.filter(exchange).contextWrite(ProfileHelper::requestScope);
+    }
+}
@@ -4,11 +4,14 @@ import static com.freelance.app.security.SecurityUtils.*;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.freelance.app.security.DomainUserDetailsService.UserWithId;
+import com.freelance.app.security.PasswordHashing;
+import com.freelance.app.util.ProfileHelper;
 import com.freelance.app.web.rest.vm.LoginVM;
 import jakarta.validation.Valid;
 import java.security.Principal;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,6 +19,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -46,18 +50,43 @@ public class AuthenticateController {
 
     private final ReactiveAuthenticationManager authenticationManager;
 
-    public AuthenticateController(JwtEncoder jwtEncoder, ReactiveAuthenticationManager authenticationManager) {
+    private final ProfileHelper profileHelper;
+
+    private final PasswordHashing passwordHashing;
+
+    public AuthenticateController(
+        JwtEncoder jwtEncoder,
+        ReactiveAuthenticationManager authenticationManager,
+        ProfileHelper profileHelper,
+        PasswordHashing passwordHashing
+    ) {
         this.jwtEncoder = jwtEncoder;
         this.authenticationManager = authenticationManager;
+        this.profileHelper = profileHelper;
+        this.passwordHashing = passwordHashing;
     }
 
     @PostMapping("/authenticate")
-    public Mono<ResponseEntity<JWTToken>> authorize(@Valid @RequestBody Mono<LoginVM> loginVM) {
+    public Mono<ResponseEntity<JWTToken>> authorize(@Valid @RequestBody Mono<LoginVM> loginVM, ServerHttpRequest request) {
+        String address = passwordHashing.clientAddress(request);
         return loginVM
             .flatMap(login ->
-                authenticationManager
-                    .authenticate(new UsernamePasswordAuthenticationToken(login.getUsername(), login.getPassword()))
-                    .flatMap(auth -> Mono.fromCallable(() -> this.createToken(auth, login.isRememberMe())))
+                passwordHashing
+                    .acquireLoginAttempt(login.getUsername(), address)
+                    .then(
+                        Mono.defer(() -> {
+                            var token = new UsernamePasswordAuthenticationToken(login.getUsername(), login.getPassword());
+                            return authenticationManager.authenticate(token);
+                        })
+                    )
+                    .doOnNext(_ -> passwordHashing.releaseLoginAttempt(login.getUsername(), address))
+                    .flatMap(auth ->
+                        profileHelper
+                            .getProfileIdFromUserLogin(auth.getName())
+                            .map(Optional::of)
+                            .defaultIfEmpty(Optional.empty())
+                            .map(profileId -> this.createToken(auth, login.isRememberMe(), profileId.orElse(null)))
+                    )
             )
             .map(jwt -> {
                 HttpHeaders httpHeaders = new HttpHeaders();
@@ -79,6 +108,18 @@ public class AuthenticateController {
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
+        return createToken(authentication, rememberMe, null);
+    }
+
+    /**
+     * Create a token for an authenticated user.
+     *
+     * @param authentication the authenticated user.
+     * @param rememberMe whether the token is long-lived.
+     * @param profileId the id of the profile of the user, {@code null} if the user has none yet.
+     * @return the signed token.
+     */
+    public String createToken(Authentication authentication, boolean rememberMe, Long profileId) {
         String authorities = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.joining(" "));
 
         Instant now = Instant.now();
@@ -97,6 +138,9 @@ public class AuthenticateController {
         if (authentication.getPrincipal() instanceof UserWithId user) {
             builder.claim(USER_ID_CLAIM, user.getId());
         }
+        if (profileId != null) {
+            builder.claim(PROFILE_ID_CLAIM, profileId);
+        }
 
         JwsHeader jwsHeader = JwsHeader.with(JWT_ALGORITHM).build();
         return this.jwtEncoder.encode(JwtEncoderParameters.from(jwsHeader, builder.build())).getTokenValue();
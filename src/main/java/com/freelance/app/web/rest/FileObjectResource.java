@@ -0,0 +1,156 @@
+package com.freelance.app.web.rest;
+
+import com.freelance.app.domain.FileObject;
+import com.freelance.app.service.FileObjectService;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST controller for streaming the content of {@link com.freelance.app.domain.FileObject}.
+ */
+@RestController
+@RequestMapping("/api/files")
+public class FileObjectResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileObjectResource.class);
+
+    // object keys are never overwritten, so the content behind a file id never changes
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable();
+
+    private final FileObjectService fileObjectService;
+
+    public FileObjectResource(FileObjectService fileObjectService) {
+        this.fileObjectService = fileObjectService;
+    }
+
+    /**
+     * {@code GET /files/:id} : stream the content of a file.
+     * <p>
+     * A single byte range is honoured with {@code 206 Partial Content}, so videos can be played and seeked progressively.
+     * The stored checksum is used as a strong ETag.
+     *
+     * @param id the id of the file.
+     * @return the content, {@code 304} if the client copy is current or {@code 404} if there is no such file or the current
+     * user may not read it.
+     */
+    @GetMapping("/{id}")
+    public Mono<Void> getFile(@PathVariable Long id, ServerWebExchange exchange) {
+        LOG.debug("REST request to stream FileObject : {}", id);
+        return fileObjectService
+            .findReadable(id)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .flatMap(file -> writeFile(file, exchange.getRequest().getHeaders(), exchange.getResponse()));
+    }
+
+    private Mono<Void> writeFile(FileObject file, HttpHeaders requestHeaders, ServerHttpResponse response) {
+        String etag = file.getChecksum() == null ? null : "\"" + file.getChecksum() + "\"";
+        long size = file.getFileSize();
+
+        HttpHeaders headers = response.getHeaders();
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setCacheControl(IMMUTABLE);
+        if (etag != null) {
+            headers.setETag(etag);
+        }
+
+        if (etag != null && matches(requestHeaders.getIfNoneMatch(), etag)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+
+        headers.setContentType(contentType(file));
+
+        List<HttpRange> ranges;
+        try {
+            ranges = rangeApplies(requestHeaders, etag) ? requestHeaders.getRange() : List.of();
+        } catch (IllegalArgumentException e) {
+            ranges = List.of();
+        }
+
+        // multiple ranges would need a multipart/byteranges body, players only ever ask for one
+        if (ranges.size() != 1 || size == 0) {
+            headers.setContentLength(size);
+            response.setStatusCode(HttpStatus.OK);
+            return writeBody(file, 0, size, response);
+        }
+
+        HttpRange range = ranges.getFirst();
+        long start;
+        long end;
+        try {
+            start = range.getRangeStart(size);
+            end = range.getRangeEnd(size);
+        } catch (IllegalArgumentException e) {
+            start = size;
+            end = size;
+        }
+        if (start >= size) {
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            response.setStatusCode(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+            return response.setComplete();
+        }
+
+        long length = end - start + 1;
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        headers.setContentLength(length);
+        response.setStatusCode(HttpStatus.PARTIAL_CONTENT);
+        return writeBody(file, start, length, response);
+    }
+
+    /**
+     * Write the body, handing local copies to the server as a file region so their bytes never cross the heap
+     * ({@code sendfile} on Reactor Netty).
+     */
+    private Mono<Void> writeBody(FileObject file, long offset, long length, ServerHttpResponse response) {
+        if (length == 0) {
+            return response.setComplete();
+        }
+        if (!(response instanceof ZeroCopyHttpOutputMessage zeroCopy)) {
+            return response.writeWith(fileObjectService.read(file, offset, length));
+        }
+        return fileObjectService
+            .findLocalCopy(file)
+            // the server commits the response before it opens the copy, an eviction can only be caught before writing
+            .filter(Files::isReadable)
+            .map(path -> zeroCopy.writeWith(path, offset, length))
+            .defaultIfEmpty(Mono.defer(() -> response.writeWith(fileObjectService.read(file, offset, length))))
+            .flatMap(write -> write);
+    }
+
+    /**
+     * A range only applies when there is no {@code If-Range} or it names the current version of the file.
+     */
+    private static boolean rangeApplies(HttpHeaders requestHeaders, String etag) {
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        return ifRange == null || ifRange.equals(etag);
+    }
+
+    private static boolean matches(List<String> ifNoneMatch, String etag) {
+        return ifNoneMatch.stream().anyMatch(tag -> tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag));
+    }
+
+    private static MediaType contentType(FileObject file) {
+        try {
+            return file.getContentType() == null ? MediaType.APPLICATION_OCTET_STREAM : MediaType.parseMediaType(file.getContentType());
+        } catch (IllegalArgumentException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+}
@@ -3,11 +3,14 @@ package com.freelance.app.web.rest;
 import com.freelance.app.domain.Message;
 import com.freelance.app.service.MessageService;
 import com.freelance.app.service.dto.MessageShortDTO;
-import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.ForwardedHeaderUtils;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -19,16 +22,46 @@ public class MessageResource {
 
     private static final Logger LOG = LoggerFactory.getLogger(MessageResource.class);
 
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 200;
+
     private final MessageService messageService;
 
     public MessageResource(MessageService messageService) {
         this.messageService = messageService;
     }
 
+    /**
+     * {@code GET /messages/:conversationId} : get a page of a conversation, newest message first.
+     *
+     * @param conversationId the id of the conversation.
+     * @param before the cursor of the page, omitted for the newest page.
+     * @param limit the maximum number of messages, at most {@value #MAX_LIMIT}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the messages, streamed as they are read. When
+     * there are older messages the {@code Link} header points to the next page.
+     */
     @GetMapping("/{conversationId}")
-    public Mono<ResponseEntity<List<MessageShortDTO>>> getAllConversationMessages(@PathVariable Long conversationId) {
-        LOG.debug("REST request to get all Messages for conversation with id: {}", conversationId);
-        return messageService.getAllConversationMessages(conversationId).map(ResponseEntity::ok);
+    public Mono<ResponseEntity<Flux<MessageShortDTO>>> getConversationMessages(
+        @PathVariable Long conversationId,
+        @RequestParam(required = false) Long before,
+        @RequestParam(defaultValue = "" + DEFAULT_LIMIT) int limit,
+        ServerHttpRequest request
+    ) {
+        LOG.debug("REST request to get Messages for conversation with id: {} before: {}", conversationId, before);
+        int pageSize = Math.clamp(limit, 1, MAX_LIMIT);
+
+        return messageService
+            .getConversationMessages(conversationId, before, pageSize)
+            .map(page -> {
+                if (page.next() == null) {
+                    return ResponseEntity.ok().body(page.messages());
+                }
+                String next = ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders())
+                    .replaceQueryParam("before", page.next())
+                    .replaceQueryParam("limit", pageSize)
+                    .toUriString();
+                return ResponseEntity.ok().header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"").body(page.messages());
+            });
     }
 
     @PatchMapping("/edit-message/{messageId}")
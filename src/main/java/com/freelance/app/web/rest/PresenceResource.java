@@ -0,0 +1,48 @@
+package com.freelance.app.web.rest;
+
+import com.freelance.app.service.ConversationService;
+import com.freelance.app.web.rest.errors.BadRequestAlertException;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST controller for the online status of profiles, derived from their open chat sessions.
+ */
+@RestController
+@RequestMapping("/api/presence")
+public class PresenceResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PresenceResource.class);
+
+    private static final int MAX_IDS = 100;
+
+    private final ConversationService conversationService;
+
+    public PresenceResource(ConversationService conversationService) {
+        this.conversationService = conversationService;
+    }
+
+    /**
+     * {@code GET /presence?ids=1,2} : get the online status of several profiles the current user has a conversation with.
+     *
+     * @param ids the profile ids, at most {@value #MAX_IDS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and whether each profile is online, profiles without
+     * a conversation with the current user are left out; or with status {@code 400 (Bad Request)} if too many ids are given.
+     */
+    @GetMapping
+    public Mono<ResponseEntity<Map<Long, Boolean>>> getOnlineStatus(@RequestParam List<Long> ids) {
+        LOG.debug("REST request to get the online status of {} profiles", ids.size());
+        if (ids.size() > MAX_IDS) {
+            return Mono.error(new BadRequestAlertException("At most " + MAX_IDS + " profile ids are allowed", "presence", "tooManyIds"));
+        }
+        return conversationService.getPartnersOnlineStatus(ids).map(ResponseEntity::ok);
+    }
+}
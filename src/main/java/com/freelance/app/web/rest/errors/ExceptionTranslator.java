@@ -2,6 +2,7 @@ package com.freelance.app.web.rest.errors;
 
 import static org.springframework.core.annotation.AnnotatedElementUtils.findMergedAnnotation;
 
+import com.freelance.app.exception.TooManyRequestsException;
 import com.freelance.app.exception.UsernameAlreadyUsedException;
 import java.net.URI;
 import java.util.*;
@@ -223,6 +224,7 @@ public class ExceptionTranslator extends ResponseEntityExceptionHandler implemen
         if (err instanceof ConcurrencyFailureException) return HttpStatus.CONFLICT;
         if (err instanceof BadCredentialsException) return HttpStatus.UNAUTHORIZED;
         if (err instanceof UsernameNotFoundException) return HttpStatus.UNAUTHORIZED;
+        if (err instanceof TooManyRequestsException) return HttpStatus.TOO_MANY_REQUESTS;
         return null;
     }
 
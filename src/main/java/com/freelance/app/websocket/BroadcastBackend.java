@@ -0,0 +1,51 @@
+package com.freelance.app.websocket;
+
+import java.util.Collection;
+import java.util.Set;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Carries chat payloads between the nodes of the cluster.
+ * <p>
+ * The {@link ConversationBroadcaster} hands every payload to the backend and delivers whatever the backend emits to the
+ * sessions connected to this node. The implementation is picked with {@code application.chat.broadcaster}.
+ */
+public interface BroadcastBackend {
+    /**
+     * Send a payload for a user to every node, this one included.
+     *
+     * @param broadcast the payload and its receiving user.
+     * @return completes once the payload is handed to the transport.
+     */
+    Mono<Void> publish(Broadcast broadcast);
+
+    /**
+     * @return the payloads published on any node, to be delivered on this one.
+     */
+    Flux<Broadcast> broadcasts();
+
+    /**
+     * Called when a user opened their first session on this node.
+     */
+    default void connected(Long userId) {}
+
+    /**
+     * Called when the last session of a user on this node closed.
+     */
+    default void disconnected(Long userId) {}
+
+    /**
+     * @param userIds the profile ids of the users.
+     * @return those of the users connected to another node, none when there is only this one.
+     */
+    default Mono<Set<Long>> onlineElsewhere(Collection<Long> userIds) {
+        return Mono.just(Set.of());
+    }
+
+    /**
+     * @param userId the profile id of the receiving user.
+     * @param payload the serialized event.
+     */
+    record Broadcast(Long userId, String payload) {}
+}
@@ -0,0 +1,47 @@
+package com.freelance.app.websocket;
+
+import com.freelance.app.websocket.BroadcastBackend.Broadcast;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Hands the broadcasts of a {@link BroadcastBackend} to the sessions of this node.
+ * <p>
+ * Emissions are serialized so publishers on different threads never collide. A broadcast the sink does not take is
+ * logged and counted, the publisher keeps running: it may be the listener delivering to every user of the node.
+ */
+final class BroadcastSink {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BroadcastSink.class);
+
+    private final Sinks.Many<Broadcast> sink = Sinks.many().multicast().directBestEffort();
+    private final MeterRegistry registry;
+
+    BroadcastSink(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    void emit(Broadcast broadcast) {
+        Sinks.EmitResult result;
+        synchronized (sink) {
+            result = sink.tryEmitNext(broadcast);
+        }
+        // without a subscriber there is no session to deliver to
+        if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            LOG.warn("Could not deliver chat broadcast for user {}: {}", broadcast.userId(), result);
+            Counter.builder("chat.broadcast.failures")
+                .description("Broadcasts the sessions of this node could not take")
+                .tag("result", result.name())
+                .register(registry)
+                .increment();
+        }
+    }
+
+    Flux<Broadcast> asFlux() {
+        return sink.asFlux();
+    }
+}
@@ -1,17 +1,16 @@
 package com.freelance.app.websocket;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.freelance.app.domain.Conversation;
 import com.freelance.app.domain.Message;
-import com.freelance.app.domain.Profile;
-import com.freelance.app.repository.ConversationRepository;
-import com.freelance.app.repository.MessageRepository;
+import com.freelance.app.security.SecurityUtils;
 import com.freelance.app.util.ProfileHelper;
 import java.time.Instant;
+import java.util.List;
 import org.jetbrains.annotations.NotNull;
-import org.springframework.security.oauth2.jwt.JwtClaimAccessor;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.CloseStatus;
 import org.springframework.web.reactive.socket.WebSocketHandler;
 import org.springframework.web.reactive.socket.WebSocketMessage;
 import org.springframework.web.reactive.socket.WebSocketSession;
@@ -22,29 +21,35 @@ import reactor.core.publisher.Mono;
 public class ChatWebSocketHandler implements WebSocketHandler {
 
     private final ObjectMapper om;
-    private final ConversationRepository conversationRepository;
-    private final MessageRepository messageRepository;
+    private final ConversationResolver conversationResolver;
+    private final MessageBatcher messageBatcher;
     private final ConversationBroadcaster broadcaster;
     private final ReactiveJwtDecoder jwtDecoder;
     private final ProfileHelper profileHelper;
+    private final TypingThrottle typingThrottle;
+    private final ReadReceiptTracker readReceiptTracker;
 
     public ChatWebSocketHandler(
         ObjectMapper om,
-        ConversationRepository conversationRepository,
-        MessageRepository messageRepository,
+        ConversationResolver conversationResolver,
+        MessageBatcher messageBatcher,
         ConversationBroadcaster broadcaster,
         ReactiveJwtDecoder jwtDecoder,
-        ProfileHelper profileHelper
+        ProfileHelper profileHelper,
+        TypingThrottle typingThrottle,
+        ReadReceiptTracker readReceiptTracker
     ) {
         this.om = om;
-        this.conversationRepository = conversationRepository;
-        this.messageRepository = messageRepository;
+        this.conversationResolver = conversationResolver;
+        this.messageBatcher = messageBatcher;
         this.broadcaster = broadcaster;
         this.jwtDecoder = jwtDecoder;
         this.profileHelper = profileHelper;
+        this.typingThrottle = typingThrottle;
+        this.readReceiptTracker = readReceiptTracker;
     }
 
-    record WsIn(String type, Long receiverId, String body, String clientMsgId) {}
+    record WsIn(String type, Long receiverId, String body, String clientMsgId, Long messageId) {}
 
     record WsOut(
         String type,
@@ -57,13 +62,22 @@ public class ChatWebSocketHandler implements WebSocketHandler {
         String clientMsgId
     ) {}
 
+    record WsTyping(String type, Long senderId) {}
+
+    record WsPresence(String type, Long profileId, boolean online) {}
+
+    record WsRead(String type, Long conversationId, Long readerId, Long messageId) {}
+
     @Override
     public @NotNull Mono<Void> handle(@NotNull WebSocketSession session) {
-        Mono<Long> senderIdMono = loginFromSession(session).flatMap(profileHelper::getProfileFromUserLogin).map(Profile::getId);
+        Mono<Long> senderIdMono = jwtFromSession(session).flatMap(jwt ->
+            profileHelper.getProfileId(jwt.getSubject(), SecurityUtils.extractProfileId(jwt))
+        );
 
         return senderIdMono
             .flatMap(senderId -> {
-                Flux<WebSocketMessage> outgoing = broadcaster.flux(senderId).map(session::textMessage);
+                Long resumeFrom = parseLong(extractQueryParam(session.getHandshakeInfo().getUri().getQuery(), "resumeFrom"));
+                Flux<WebSocketMessage> outgoing = broadcaster.flux(senderId, resumeFrom).map(session::textMessage);
 
                 Mono<Void> incoming = session
                     .receive()
@@ -72,8 +86,9 @@ public class ChatWebSocketHandler implements WebSocketHandler {
                         if (text == null || text.isBlank()) return Mono.empty();
                         return Mono.fromCallable(() -> om.readValue(text, WsIn.class)).onErrorResume(_ -> Mono.empty());
                     })
-                    .flatMap(req -> {
-                        if (!"chat.send".equals(req.type())) return Mono.empty();
+                    // stored concurrently, acknowledged in the order the client sent them
+                    .flatMapSequential(req -> {
+                        if (!"chat.send".equals(req.type())) return signal(senderId, req).then(Mono.empty());
 
                         Long receiverId = req.receiverId();
                         if (receiverId == null || receiverId.equals(senderId)) return Mono.empty();
@@ -81,67 +96,96 @@ public class ChatWebSocketHandler implements WebSocketHandler {
                         String body = req.body();
                         if (body == null || body.isBlank()) return Mono.empty();
 
-                        return getOrCreateConversation(senderId, receiverId).flatMap(conv -> {
+                        return conversationResolver.resolve(senderId, receiverId).flatMap(conversationId -> {
                             Message msg = new Message()
-                                .conversationId(conv.getId())
+                                .conversationId(conversationId)
                                 .senderId(senderId)
                                 .receiverId(receiverId)
                                 .body(body)
                                 .sentAt(Instant.now());
 
-                            return messageRepository
+                            return messageBatcher
                                 .save(msg)
-                                .flatMap(saved ->
-                                    Mono.fromCallable(() ->
-                                        om.writeValueAsString(
-                                            new WsOut(
-                                                "chat.message",
-                                                conv.getId(),
-                                                saved.getId(),
-                                                senderId,
-                                                receiverId,
-                                                saved.getBody(),
-                                                saved.getSentAt(),
-                                                req.clientMsgId()
-                                            )
-                                        )
+                                .map(saved ->
+                                    new WsOut(
+                                        "chat.message",
+                                        conversationId,
+                                        saved.getId(),
+                                        senderId,
+                                        receiverId,
+                                        saved.getBody(),
+                                        saved.getSentAt(),
+                                        req.clientMsgId()
                                     )
-                                )
-                                .doOnNext(jsonOut -> {
-                                    broadcaster.publish(senderId, jsonOut);
-                                    broadcaster.publish(receiverId, jsonOut);
-                                })
-                                .then();
+                                );
                         });
                     })
+                    .concatMap(out ->
+                        Mono.fromCallable(() -> om.writeValueAsString(out)).flatMap(jsonOut ->
+                            broadcaster.publish(out.senderId(), jsonOut).and(broadcaster.publish(out.receiverId(), jsonOut))
+                        )
+                    )
                     .onErrorResume(_ -> Mono.empty())
                     .then();
 
-                return session.send(outgoing).and(incoming).onErrorResume(_ -> session.close());
+                return session
+                    .send(outgoing)
+                    .and(incoming)
+                    .onErrorResume(ConversationBroadcaster.SlowConsumerException.class, _ -> session.close(CloseStatus.SERVICE_OVERLOAD))
+                    .onErrorResume(_ -> session.close());
             })
             .onErrorResume(_ -> session.close());
     }
 
-    private Mono<Conversation> getOrCreateConversation(Long a, Long b) {
-        return conversationRepository
-            .findBetween(a, b)
-            .switchIfEmpty(
-                conversationRepository.save(new Conversation().createdAt(Instant.now()).id(null).participantAId(a).participantBId(b))
-            );
+    /**
+     * Handle the events that are not chat messages, they are only accepted for a receiver the sender has a conversation
+     * with. {@code chat.typing} is forwarded to the receiver unless throttled, {@code presence} answers whether the
+     * receiver is online and {@code chat.read} marks the conversation read up to a message, the {@link ReadReceiptTracker}
+     * tells the receiver and the reader's other sessions once the mark is written.
+     */
+    private Mono<Void> signal(Long senderId, WsIn req) {
+        Long receiverId = req.receiverId();
+        if (receiverId == null || receiverId.equals(senderId)) return Mono.empty();
+
+        Mono<Long> conversation = conversationResolver.find(senderId, receiverId);
+        return switch (req.type()) {
+            case "chat.typing" -> conversation
+                .filter(_ -> typingThrottle.tryForward(senderId, receiverId))
+                .flatMap(_ -> Mono.fromCallable(() -> om.writeValueAsString(new WsTyping("chat.typing", senderId))))
+                .flatMap(json -> broadcaster.publish(receiverId, json));
+            case "presence" -> conversation
+                .flatMap(_ -> broadcaster.online(List.of(receiverId)))
+                .map(online -> new WsPresence("presence", receiverId, online.contains(receiverId)))
+                .flatMap(presence -> Mono.fromCallable(() -> om.writeValueAsString(presence)))
+                .flatMap(json -> broadcaster.publish(senderId, json));
+            case "chat.read" -> req.messageId() == null
+                ? Mono.empty()
+                : conversation.doOnNext(conversationId -> readReceiptTracker.markRead(senderId, conversationId, req.messageId())).then();
+            case null, default -> Mono.empty();
+        };
     }
 
-    private Mono<String> loginFromSession(WebSocketSession session) {
-        String token = extractQueryParam(session.getHandshakeInfo().getUri().getQuery());
+    private Mono<Jwt> jwtFromSession(WebSocketSession session) {
+        String token = extractQueryParam(session.getHandshakeInfo().getUri().getQuery(), "token");
         if (token == null || token.isBlank()) return Mono.error(new IllegalAccessException("Missing token"));
-        return jwtDecoder.decode(token).map(JwtClaimAccessor::getSubject);
+        return jwtDecoder.decode(token);
     }
 
-    private static String extractQueryParam(String query) {
+    private static String extractQueryParam(String query, String name) {
         if (query == null || query.isBlank()) return null;
         for (String p : query.split("&")) {
             int idx = p.indexOf('=');
-            if (idx > 0 && "token".equals(p.substring(0, idx))) return p.substring(idx + 1);
+            if (idx > 0 && name.equals(p.substring(0, idx))) return p.substring(idx + 1);
         }
         return null;
     }
+
+    private static Long parseLong(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
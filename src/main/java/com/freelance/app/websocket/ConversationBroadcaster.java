@@ -1,24 +1,334 @@
 package com.freelance.app.websocket;
 
+import com.freelance.app.config.ApplicationProperties;
+import com.freelance.app.config.ApplicationProperties.Chat.OverflowPolicy;
+import com.freelance.app.websocket.BroadcastBackend.Broadcast;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Sinks;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
 
+/**
+ * Delivers chat events to the websocket sessions connected to this node.
+ * <p>
+ * A user is only tracked while at least one of their sessions is open, and for {@code application.chat.replay-retention}
+ * after the last one closed so a reconnecting client can resume. Publishing to any other user is a no-op. Every session
+ * has its own bounded queue for events the client has not read yet; when it is full the oldest event is dropped or the
+ * session is disconnected, depending on {@code application.chat.overflow-policy}.
+ * <p>
+ * Every event delivered to a user gets the next number of the user's sequence, added to its payload as {@code seq}. The
+ * last {@code application.chat.replay-buffer-size} events are kept per user, a session resuming after an event is first
+ * sent everything delivered after it. When that event is no longer buffered, or was delivered by another node, the
+ * session is sent {@code chat.resync} and the client reloads what it shows. A sequence starts at a random number, a
+ * number from a sequence that was forgotten does not match the one of a later one.
+ */
 @Component
 public class ConversationBroadcaster {
 
-    private final ConcurrentHashMap<Long, Sinks.Many<String>> sinks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, User> users = new ConcurrentHashMap<>();
 
-    private Sinks.Many<String> sink(Long userId) {
-        return sinks.computeIfAbsent(userId, _ -> Sinks.many().multicast().onBackpressureBuffer());
+    private final BroadcastBackend backend;
+    private final int bufferSize;
+    private final OverflowPolicy overflowPolicy;
+    private final int replayBufferSize;
+    private final long replayRetentionNanos;
+
+    private final AtomicInteger online = new AtomicInteger();
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final Counter dropped;
+    private final Counter replayedFromMemory;
+    private final Counter resynced;
+
+    private record Event(long seq, String payload) {}
+
+    private static final String RESYNC = "{\"type\":\"chat.resync\"}";
+
+    // kept below 2^53 so that clients parsing numbers as doubles read them exactly
+    private static final long FIRST_SEQ_BOUND = 1L << 52;
+
+    public ConversationBroadcaster(BroadcastBackend backend, ApplicationProperties applicationProperties, MeterRegistry registry) {
+        ApplicationProperties.Chat properties = applicationProperties.getChat();
+        this.backend = backend;
+        this.bufferSize = properties.getSessionBufferSize();
+        this.overflowPolicy = properties.getOverflowPolicy();
+        this.replayBufferSize = properties.getReplayBufferSize();
+        this.replayRetentionNanos = properties.getReplayRetention().toNanos();
+
+        Gauge.builder("chat.online.users", online, AtomicInteger::get)
+            .description("Users with an open chat session on this node")
+            .register(registry);
+        Gauge.builder("chat.buffered.messages", buffered, AtomicInteger::get)
+            .description("Messages queued for chat sessions that have not read them yet")
+            .register(registry);
+        this.dropped = Counter.builder("chat.dropped.messages")
+            .description("Messages dropped because a session queue was full")
+            .register(registry);
+        this.replayedFromMemory = resumes("memory").register(registry);
+        this.resynced = resumes("resync").register(registry);
+
+        backend.broadcasts().subscribe(this::deliver);
+    }
+
+    private static Counter.Builder resumes(String source) {
+        return Counter.builder("chat.resumes").description("Resumed chat sessions").tag("source", source);
     }
 
+    /**
+     * Open a session for a user. The user is tracked until the returned flux is cancelled or terminated.
+     *
+     * @param userId the profile id of the user.
+     * @return the events for the session, it errors with {@link SlowConsumerException} if the session is disconnected.
+     */
     public Flux<String> flux(Long userId) {
-        return sink(userId).asFlux();
+        return flux(userId, null);
+    }
+
+    /**
+     * Open a session for a user that continues after the last event a previous session received.
+     *
+     * @param userId the profile id of the user.
+     * @param resumeFrom the {@code seq} of the last event received, {@code null} to only receive new events.
+     * @return the missed events, or {@code chat.resync} if they are not buffered, followed by the new ones.
+     */
+    public Flux<String> flux(Long userId, Long resumeFrom) {
+        return Flux.create(sink -> {
+            Session session = new Session(sink);
+            open(userId, session, resumeFrom);
+            sink.onRequest(_ -> session.drain());
+            sink.onDispose(() -> {
+                close(userId, session);
+                session.clear();
+            });
+        });
     }
 
-    public void publish(Long userId, String json) {
-        sink(userId).tryEmitNext(json);
+    private void open(Long userId, Session session, Long resumeFrom) {
+        while (true) {
+            User user = users.computeIfAbsent(userId, _ -> new User());
+            synchronized (user) {
+                if (user.removed) {
+                    continue;
+                }
+                if (user.sessions.isEmpty()) {
+                    online.incrementAndGet();
+                    backend.connected(userId);
+                }
+                user.sessions.add(session);
+                user.disconnectedAt = 0;
+                if (resumeFrom != null) {
+                    // before any new event can reach the session
+                    List<Event> missed = user.deliveredAfter(resumeFrom);
+                    if (missed != null) {
+                        replayedFromMemory.increment();
+                        missed.forEach(event -> session.offer(event.payload()));
+                    } else {
+                        resynced.increment();
+                        session.offer(RESYNC);
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    private void close(Long userId, Session session) {
+        User user = users.get(userId);
+        if (user == null) {
+            return;
+        }
+        synchronized (user) {
+            if (!user.sessions.remove(session) || !user.sessions.isEmpty()) {
+                return;
+            }
+            online.decrementAndGet();
+            backend.disconnected(userId);
+            user.disconnectedAt = System.nanoTime();
+            if (replayRetentionNanos <= 0) {
+                remove(userId, user);
+            }
+        }
+    }
+
+    // guarded by user
+    private void remove(Long userId, User user) {
+        user.removed = true;
+        users.remove(userId, user);
+    }
+
+    /**
+     * Forget the users that stayed disconnected for longer than the replay retention.
+     */
+    @Scheduled(fixedDelay = 30_000)
+    public void removeDisconnectedUsers() {
+        long now = System.nanoTime();
+        users.forEach((userId, user) -> {
+            synchronized (user) {
+                if (user.sessions.isEmpty() && now - user.disconnectedAt > replayRetentionNanos) {
+                    remove(userId, user);
+                }
+            }
+        });
+    }
+
+    /**
+     * @param userIds the profile ids of the users.
+     * @return those of the users with an open session on this node or, as far as the backend knows, on another one.
+     */
+    public Mono<Set<Long>> online(Collection<Long> userIds) {
+        Set<Long> online = new HashSet<>();
+        List<Long> elsewhere = new ArrayList<>();
+        for (Long userId : userIds) {
+            if (isConnectedHere(userId)) {
+                online.add(userId);
+            } else {
+                elsewhere.add(userId);
+            }
+        }
+        if (elsewhere.isEmpty()) {
+            return Mono.just(online);
+        }
+        return backend
+            .onlineElsewhere(elsewhere)
+            .map(others -> {
+                online.addAll(others);
+                return online;
+            });
+    }
+
+    private boolean isConnectedHere(Long userId) {
+        User user = users.get(userId);
+        if (user == null) {
+            return false;
+        }
+        synchronized (user) {
+            return !user.sessions.isEmpty();
+        }
+    }
+
+    /**
+     * Send an event to every session of a user, on whichever node it is connected.
+     *
+     * @param json the event, a JSON object.
+     */
+    public Mono<Void> publish(Long userId, String json) {
+        return backend.publish(new Broadcast(userId, json));
+    }
+
+    private void deliver(Broadcast broadcast) {
+        User user = users.get(broadcast.userId());
+        if (user == null) {
+            return;
+        }
+        synchronized (user) {
+            long seq = ++user.lastSeq;
+            Event event = new Event(seq, withSeq(broadcast.payload(), seq));
+            user.record(event);
+            // a session may close while it is offered the event
+            List.copyOf(user.sessions).forEach(session -> session.offer(event.payload()));
+        }
+    }
+
+    static String withSeq(String json, long seq) {
+        if (!json.startsWith("{")) {
+            return json;
+        }
+        String rest = json.substring(1).stripLeading();
+        return "{\"seq\":" + seq + (rest.startsWith("}") ? "" : ",") + rest;
+    }
+
+    public static class SlowConsumerException extends RuntimeException {
+
+        public SlowConsumerException() {
+            super("Chat session did not keep up with its messages");
+        }
+    }
+
+    private final class User {
+
+        // all guarded by this
+        private final Set<Session> sessions = new HashSet<>();
+        // in the order the events were delivered
+        private final ArrayDeque<Event> ring = new ArrayDeque<>();
+        private long lastSeq = ThreadLocalRandom.current().nextLong(FIRST_SEQ_BOUND);
+        private long disconnectedAt;
+        private boolean removed;
+
+        void record(Event event) {
+            if (replayBufferSize <= 0) {
+                return;
+            }
+            if (ring.size() >= replayBufferSize) {
+                ring.poll();
+            }
+            ring.add(event);
+        }
+
+        /**
+         * @return the events delivered after the one with a sequence number, or {@code null} if it is not buffered.
+         */
+        List<Event> deliveredAfter(long seq) {
+            List<Event> after = new ArrayList<>();
+            for (Iterator<Event> it = ring.descendingIterator(); it.hasNext();) {
+                Event event = it.next();
+                if (event.seq() == seq) {
+                    return after.reversed();
+                }
+                after.add(event);
+            }
+            return null;
+        }
+    }
+
+    private final class Session {
+
+        private final FluxSink<String> sink;
+
+        // guarded by this
+        private final ArrayDeque<String> queue = new ArrayDeque<>();
+
+        private Session(FluxSink<String> sink) {
+            this.sink = sink;
+        }
+
+        synchronized void offer(String event) {
+            if (queue.size() >= bufferSize) {
+                dropped.increment();
+                if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                    sink.error(new SlowConsumerException());
+                    return;
+                }
+                queue.poll();
+                buffered.decrementAndGet();
+            }
+            queue.add(event);
+            buffered.incrementAndGet();
+            drain();
+        }
+
+        synchronized void drain() {
+            while (!queue.isEmpty() && sink.requestedFromDownstream() > 0 && !sink.isCancelled()) {
+                sink.next(queue.poll());
+                buffered.decrementAndGet();
+            }
+        }
+
+        synchronized void clear() {
+            buffered.addAndGet(-queue.size());
+            queue.clear();
+        }
     }
 }
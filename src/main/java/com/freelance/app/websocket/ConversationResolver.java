@@ -0,0 +1,86 @@
+package com.freelance.app.websocket;
+
+import com.freelance.app.domain.Conversation;
+import com.freelance.app.repository.ConversationRepository;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Resolves the conversation between two participants, creating it on the first message.
+ * <p>
+ * Conversations are never deleted, so the id of a pair is cached on this node once known and later messages skip the
+ * lookup entirely. Creation relies on the unique index over the normalized pair, so concurrent first messages end up
+ * in the same conversation.
+ */
+@Component
+public class ConversationResolver {
+
+    private static final int MAX_ENTRIES = 100_000;
+
+    private record Pair(long low, long high) {
+        static Pair of(Long a, Long b) {
+            return new Pair(Math.min(a, b), Math.max(a, b));
+        }
+    }
+
+    private final ConversationRepository conversationRepository;
+
+    // guarded by itself
+    private final Map<Pair, Long> ids = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Pair, Long> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    public ConversationResolver(ConversationRepository conversationRepository) {
+        this.conversationRepository = conversationRepository;
+    }
+
+    /**
+     * Get the id of the conversation between two participants, creating the conversation if needed.
+     */
+    public Mono<Long> resolve(Long a, Long b) {
+        Pair pair = Pair.of(a, b);
+        Long cached = cached(pair);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+
+        return conversationRepository
+            .insertIfAbsent(a, b, Instant.now())
+            .switchIfEmpty(Mono.defer(() -> conversationRepository.findBetween(a, b)))
+            .map(Conversation::getId)
+            .doOnNext(id -> remember(pair, id));
+    }
+
+    /**
+     * Get the id of the conversation between two participants without creating it.
+     *
+     * @return the id, or empty if the participants have no conversation.
+     */
+    public Mono<Long> find(Long a, Long b) {
+        Pair pair = Pair.of(a, b);
+        Long cached = cached(pair);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+
+        return conversationRepository.findBetween(a, b).map(Conversation::getId).doOnNext(id -> remember(pair, id));
+    }
+
+    private Long cached(Pair pair) {
+        synchronized (ids) {
+            return ids.get(pair);
+        }
+    }
+
+    private void remember(Pair pair, Long id) {
+        synchronized (ids) {
+            ids.put(pair, id);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.freelance.app.websocket;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Backend for a single node, payloads never leave the JVM.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.chat", name = "broadcaster", havingValue = "local", matchIfMissing = true)
+public class LocalBroadcastBackend implements BroadcastBackend {
+
+    private final BroadcastSink broadcasts;
+
+    public LocalBroadcastBackend(MeterRegistry registry) {
+        this.broadcasts = new BroadcastSink(registry);
+    }
+
+    @Override
+    public Mono<Void> publish(Broadcast broadcast) {
+        broadcasts.emit(broadcast);
+        return Mono.empty();
+    }
+
+    @Override
+    public Flux<Broadcast> broadcasts() {
+        return broadcasts.asFlux();
+    }
+}
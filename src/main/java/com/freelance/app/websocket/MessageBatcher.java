@@ -0,0 +1,107 @@
+package com.freelance.app.websocket;
+
+import com.freelance.app.config.ApplicationProperties;
+import com.freelance.app.domain.Message;
+import com.freelance.app.repository.MessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Write-behind batcher for chat messages.
+ * <p>
+ * Messages are collected for at most {@code application.chat.write-batch-delay} or until
+ * {@code application.chat.write-batch-size} are pending, then stored with one multi-row INSERT. Batches are written one
+ * after the other, so messages keep the order in which they were queued. When a batch fails its messages are retried
+ * one by one, so an invalid message only fails its own sender.
+ */
+@Component
+public class MessageBatcher implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MessageBatcher.class);
+
+    private final MessageRepository messageRepository;
+    private final Sinks.Many<Pending> queue = Sinks.many().unicast().onBackpressureBuffer();
+    private final DistributionSummary batchSizes;
+    private final MeterRegistry registry;
+
+    private record Pending(Message message, Sinks.One<Message> result) {}
+
+    public MessageBatcher(MessageRepository messageRepository, ApplicationProperties applicationProperties, MeterRegistry registry) {
+        this.messageRepository = messageRepository;
+        this.registry = registry;
+        this.batchSizes = DistributionSummary.builder("chat.message.batch.size")
+            .description("Chat messages stored per INSERT")
+            .register(registry);
+
+        ApplicationProperties.Chat properties = applicationProperties.getChat();
+        queue
+            .asFlux()
+            .bufferTimeout(properties.getWriteBatchSize(), properties.getWriteBatchDelay(), true)
+            .concatMap(this::write, 1)
+            .subscribe();
+    }
+
+    /**
+     * Queue a message for the next batch.
+     *
+     * @param message the message to store.
+     * @return the stored message with its generated id, once its batch is committed, or an error if the queue does not
+     * take it.
+     */
+    public Mono<Message> save(Message message) {
+        Sinks.One<Message> result = Sinks.one();
+        Sinks.EmitResult queued;
+        // senders on different threads must not collide
+        synchronized (queue) {
+            queued = queue.tryEmitNext(new Pending(message, result));
+        }
+        if (queued.isFailure()) {
+            LOG.warn("Could not queue chat message of conversation {}: {}", message.getConversationId(), queued);
+            Counter.builder("chat.message.rejected")
+                .description("Chat messages the write-behind queue did not take")
+                .tag("result", queued.name())
+                .register(registry)
+                .increment();
+            return Mono.error(new IllegalStateException("Chat message queue rejected the message: " + queued));
+        }
+        return result.asMono();
+    }
+
+    private Mono<Void> write(List<Pending> batch) {
+        batchSizes.record(batch.size());
+        return messageRepository
+            .insertAll(batch.stream().map(Pending::message).toList())
+            .then()
+            .doOnSuccess(_ -> batch.forEach(pending -> pending.result().tryEmitValue(pending.message())))
+            .onErrorResume(e -> {
+                LOG.warn("Could not store {} chat messages at once, storing them one by one: {}", batch.size(), e.getMessage());
+                return Flux.fromIterable(batch)
+                    .concatMap(pending ->
+                        messageRepository
+                            .insertAll(List.of(pending.message()))
+                            .next()
+                            .doOnNext(pending.result()::tryEmitValue)
+                            .onErrorResume(error -> {
+                                pending.result().tryEmitError(error);
+                                return Mono.empty();
+                            })
+                    )
+                    .then();
+            });
+    }
+
+    @Override
+    public void destroy() {
+        // flushes the last batch
+        queue.tryEmitComplete();
+    }
+}
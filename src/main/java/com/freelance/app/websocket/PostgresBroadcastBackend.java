@@ -0,0 +1,289 @@
+package com.freelance.app.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Backend that fans chat payloads out to every node through Postgres {@code NOTIFY}, so no extra broker is needed.
+ * <p>
+ * Each node keeps one dedicated connection that {@code LISTEN}s on the channel. A payload is delivered on the
+ * publishing node right away and the node skips its own notifications; the ids of recently seen payloads are kept
+ * to drop duplicates. {@code NOTIFY} payloads are limited to 8000 bytes, larger messages are stored in
+ * {@code chat_broadcast_payload} and only their id is sent.
+ * <p>
+ * Every node writes the users connected to it to {@code chat_presence} every {@value #PRESENCE_REFRESH_MILLIS} ms, so
+ * other nodes see a user come and go within that time. Rows a node stopped refreshing, e.g. because it crashed, are
+ * ignored after {@value #PRESENCE_EXPIRY_SECONDS} seconds.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.chat", name = "broadcaster", havingValue = "postgres")
+public class PostgresBroadcastBackend implements BroadcastBackend, InitializingBean, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PostgresBroadcastBackend.class);
+
+    private static final String CHANNEL = "chat_broadcast";
+
+    // the server rejects NOTIFY payloads of 8000 bytes or more
+    private static final int MAX_NOTIFY_PAYLOAD_BYTES = 7900;
+
+    private static final int SEEN_IDS = 10_000;
+
+    private static final long PRESENCE_REFRESH_MILLIS = 15_000;
+    private static final long PRESENCE_EXPIRY_SECONDS = 60;
+
+    private final ConnectionFactory listenConnectionFactory;
+    private final DatabaseClient databaseClient;
+    private final ObjectMapper om;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final BroadcastSink broadcasts;
+    private final Set<String> seen = Collections.synchronizedSet(
+        Collections.newSetFromMap(
+            new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > SEEN_IDS;
+                }
+            }
+        )
+    );
+
+    private final Set<Long> connected = ConcurrentHashMap.newKeySet();
+
+    private Disposable listener;
+
+    record Envelope(String node, String id, Long userId, String payload, Long ref) {}
+
+    public PostgresBroadcastBackend(
+        ConnectionFactory connectionFactory,
+        DatabaseClient databaseClient,
+        ObjectMapper om,
+        MeterRegistry registry
+    ) {
+        // the listening connection is held for the lifetime of the node, it should not take a slot of the pool
+        this.listenConnectionFactory = unwrap(connectionFactory);
+        this.databaseClient = databaseClient;
+        this.om = om;
+        this.broadcasts = new BroadcastSink(registry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        listener = listen()
+            .retryWhen(
+                Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                    .maxBackoff(Duration.ofSeconds(30))
+                    .doBeforeRetry(signal -> LOG.warn("Chat broadcast listener failed, reconnecting: {}", signal.failure().getMessage()))
+            )
+            .subscribe(this::emit);
+    }
+
+    @Override
+    public void destroy() {
+        if (listener != null) {
+            listener.dispose();
+        }
+        databaseClient
+            .sql("DELETE FROM chat_presence WHERE node_id = :node")
+            .bind("node", nodeId)
+            .then()
+            .onErrorResume(e -> {
+                LOG.warn("Could not remove the chat presence of this node: {}", e.getMessage());
+                return Mono.empty();
+            })
+            .block();
+    }
+
+    @Override
+    public Mono<Void> publish(Broadcast broadcast) {
+        String id = UUID.randomUUID().toString();
+        Long userId = broadcast.userId();
+        String payload = broadcast.payload();
+        seen.add(id);
+        emit(broadcast);
+
+        return Mono.fromCallable(() -> om.writeValueAsString(new Envelope(nodeId, id, userId, payload, null)))
+            .flatMap(notification ->
+                notification.getBytes(StandardCharsets.UTF_8).length <= MAX_NOTIFY_PAYLOAD_BYTES
+                    ? Mono.just(notification)
+                    : store(payload).map(ref -> toJson(new Envelope(nodeId, id, userId, null, ref)))
+            )
+            .flatMap(notification ->
+                databaseClient.sql("SELECT pg_notify(:channel, :payload)").bind("channel", CHANNEL).bind("payload", notification).then()
+            )
+            .onErrorResume(e -> {
+                LOG.warn("Could not broadcast chat message for user {}: {}", userId, e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    @Override
+    public Flux<Broadcast> broadcasts() {
+        return broadcasts.asFlux();
+    }
+
+    @Override
+    public void connected(Long userId) {
+        connected.add(userId);
+    }
+
+    @Override
+    public void disconnected(Long userId) {
+        connected.remove(userId);
+    }
+
+    @Override
+    public Mono<Set<Long>> onlineElsewhere(Collection<Long> userIds) {
+        return databaseClient
+            .sql(
+                "SELECT DISTINCT profile_id FROM chat_presence WHERE profile_id = ANY(:ids) AND node_id <> :node " +
+                "AND seen_at > now() - :expirySeconds * INTERVAL '1 second'"
+            )
+            .bind("ids", userIds.toArray(Long[]::new))
+            .bind("node", nodeId)
+            .bind("expirySeconds", PRESENCE_EXPIRY_SECONDS)
+            .map(row -> row.get("profile_id", Long.class))
+            .all()
+            .collect(Collectors.toSet())
+            .onErrorResume(e -> {
+                LOG.warn("Could not read the chat presence of other nodes: {}", e.getMessage());
+                return Mono.just(Set.of());
+            });
+    }
+
+    /**
+     * Replace the presence rows of this node with the users connected to it, and drop the rows of nodes that stopped
+     * refreshing theirs.
+     */
+    @Scheduled(fixedDelay = PRESENCE_REFRESH_MILLIS)
+    public void refreshPresence() {
+        databaseClient
+            .sql(
+                """
+                WITH current AS (SELECT DISTINCT unnest(CAST(:ids AS bigint[])) AS profile_id),
+                gone AS (
+                    DELETE FROM chat_presence
+                    WHERE (node_id = :node AND profile_id NOT IN (SELECT profile_id FROM current))
+                       OR seen_at < now() - :expirySeconds * INTERVAL '1 second'
+                )
+                INSERT INTO chat_presence (node_id, profile_id, seen_at)
+                SELECT :node, profile_id, now() FROM current
+                ON CONFLICT (node_id, profile_id) DO UPDATE SET seen_at = excluded.seen_at
+                """
+            )
+            .bind("ids", connected.toArray(Long[]::new))
+            .bind("node", nodeId)
+            .bind("expirySeconds", PRESENCE_EXPIRY_SECONDS)
+            .then()
+            .onErrorResume(e -> {
+                LOG.warn("Could not refresh the chat presence of this node: {}", e.getMessage());
+                return Mono.empty();
+            })
+            .block();
+    }
+
+    /**
+     * Large payloads are only needed until every node had the chance to read them.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void removeStalePayloads() {
+        databaseClient.sql("DELETE FROM chat_broadcast_payload WHERE created_at < now() - interval '5 minutes'").then().block();
+    }
+
+    private Flux<Broadcast> listen() {
+        return Flux.usingWhen(
+            Mono.from(listenConnectionFactory.create()).cast(PostgresqlConnection.class),
+            connection ->
+                connection
+                    .createStatement("LISTEN " + CHANNEL)
+                    .execute()
+                    .flatMap(PostgresqlResult::getRowsUpdated)
+                    .thenMany(connection.getNotifications()),
+            Connection::close
+        )
+            .mapNotNull(Notification::getParameter)
+            .concatMap(this::receive);
+    }
+
+    private Mono<Broadcast> receive(String notification) {
+        Envelope envelope;
+        try {
+            envelope = om.readValue(notification, Envelope.class);
+        } catch (JsonProcessingException e) {
+            LOG.warn("Ignoring malformed chat broadcast: {}", e.getMessage());
+            return Mono.empty();
+        }
+        if (nodeId.equals(envelope.node()) || !seen.add(envelope.id())) {
+            return Mono.empty();
+        }
+        if (envelope.ref() == null) {
+            return Mono.just(new Broadcast(envelope.userId(), envelope.payload()));
+        }
+        return databaseClient
+            .sql("SELECT payload FROM chat_broadcast_payload WHERE id = :id")
+            .bind("id", envelope.ref())
+            .map(row -> row.get("payload", String.class))
+            .one()
+            .map(payload -> new Broadcast(envelope.userId(), payload))
+            .onErrorResume(e -> {
+                LOG.warn("Could not load chat broadcast payload {}: {}", envelope.ref(), e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    private Mono<Long> store(String payload) {
+        return databaseClient
+            .sql("INSERT INTO chat_broadcast_payload (payload, created_at) VALUES (:payload, now()) RETURNING id")
+            .bind("payload", payload)
+            .map(row -> row.get("id", Long.class))
+            .one();
+    }
+
+    private String toJson(Envelope envelope) {
+        try {
+            return om.writeValueAsString(envelope);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ConnectionFactory unwrap(ConnectionFactory connectionFactory) {
+        if (connectionFactory instanceof Wrapped<?> wrapped && wrapped.unwrap() instanceof ConnectionFactory target) {
+            return target;
+        }
+        return connectionFactory;
+    }
+
+    private void emit(Broadcast broadcast) {
+        broadcasts.emit(broadcast);
+    }
+}
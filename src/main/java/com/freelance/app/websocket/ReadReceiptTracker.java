@@ -0,0 +1,136 @@
+package com.freelance.app.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.freelance.app.repository.ConversationRepository;
+import com.freelance.app.service.dto.ReadMarkDTO;
+import com.freelance.app.websocket.ChatWebSocketHandler.WsRead;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Collects read marks in memory and writes them in batches.
+ * <p>
+ * Clients acknowledge every message they show, so only the highest acknowledged message per reader and conversation
+ * is kept and all pending marks are written with one UPDATE every second. The marks that moved are then sent to both
+ * participants as the database stored them, never past the last message of the conversation. The last written mark of
+ * recent readers is kept, an acknowledgement it already covers is dropped.
+ */
+@Component
+public class ReadReceiptTracker implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReadReceiptTracker.class);
+
+    private static final int MAX_WRITTEN = 100_000;
+
+    private record Key(Long profileId, Long conversationId) {}
+
+    private final ConcurrentHashMap<Key, Long> pending = new ConcurrentHashMap<>();
+
+    // guarded by itself
+    private final Map<Key, Long> written = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Long> eldest) {
+            return size() > MAX_WRITTEN;
+        }
+    };
+
+    private final ConversationRepository conversationRepository;
+    private final ConversationBroadcaster broadcaster;
+    private final ObjectMapper om;
+    private final Counter acknowledgements;
+    private final Counter writes;
+
+    public ReadReceiptTracker(
+        ConversationRepository conversationRepository,
+        ConversationBroadcaster broadcaster,
+        ObjectMapper om,
+        MeterRegistry registry
+    ) {
+        this.conversationRepository = conversationRepository;
+        this.broadcaster = broadcaster;
+        this.om = om;
+        this.acknowledgements = Counter.builder("chat.read.acknowledgements")
+            .description("Read acknowledgements received")
+            .register(registry);
+        this.writes = Counter.builder("chat.read.writes").description("Read marks written to the database").register(registry);
+    }
+
+    /**
+     * Mark a conversation read up to a message. The participants are told with the next flush, if the mark moved.
+     */
+    public void markRead(Long profileId, Long conversationId, Long messageId) {
+        acknowledgements.increment();
+        Key key = new Key(profileId, conversationId);
+        Long last;
+        synchronized (written) {
+            last = written.get(key);
+        }
+        if (last == null || messageId > last) {
+            pending.merge(key, messageId, Math::max);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        flush();
+    }
+
+    @Scheduled(fixedDelay = 1_000)
+    public void flush() {
+        List<Map.Entry<Key, Long>> marks = new ArrayList<>();
+        pending.forEach((key, messageId) -> {
+            // a mark that moved meanwhile stays for the next flush
+            if (pending.remove(key, messageId)) {
+                marks.add(Map.entry(key, messageId));
+            }
+        });
+        if (marks.isEmpty()) {
+            return;
+        }
+
+        List<ReadMarkDTO> stored;
+        try {
+            stored = conversationRepository
+                .markRead(
+                    marks.stream().map(mark -> mark.getKey().profileId()).toArray(Long[]::new),
+                    marks.stream().map(mark -> mark.getKey().conversationId()).toArray(Long[]::new),
+                    marks.stream().map(Map.Entry::getValue).toArray(Long[]::new)
+                )
+                .collectList()
+                .block();
+            writes.increment(marks.size());
+        } catch (RuntimeException e) {
+            LOG.warn("Could not write {} read marks, retrying with the next flush: {}", marks.size(), e.getMessage());
+            marks.forEach(mark -> pending.merge(mark.getKey(), mark.getValue(), Math::max));
+            return;
+        }
+
+        synchronized (written) {
+            stored.forEach(mark -> written.merge(new Key(mark.readerId(), mark.conversationId()), mark.messageId(), Math::max));
+        }
+        Flux.fromIterable(stored)
+            .filter(ReadMarkDTO::moved)
+            .concatMap(mark ->
+                Mono.fromCallable(() ->
+                    om.writeValueAsString(new WsRead("chat.read", mark.conversationId(), mark.readerId(), mark.messageId()))
+                ).flatMap(json -> broadcaster.publish(mark.otherId(), json).and(broadcaster.publish(mark.readerId(), json)))
+            )
+            .onErrorResume(e -> {
+                LOG.warn("Could not send read receipts: {}", e.getMessage());
+                return Mono.empty();
+            })
+            .blockLast();
+    }
+}
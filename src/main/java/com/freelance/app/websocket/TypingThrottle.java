@@ -0,0 +1,46 @@
+package com.freelance.app.websocket;
+
+import com.freelance.app.config.ApplicationProperties;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Coalesces typing indicators. Clients send one on every keystroke, only the first per conversation and sender within
+ * {@code application.chat.typing-throttle} is forwarded; receivers keep showing the indicator for a bit longer than
+ * that. Nothing is persisted.
+ */
+@Component
+public class TypingThrottle {
+
+    private record Key(long senderId, long receiverId) {}
+
+    private final ConcurrentHashMap<Key, Long> lastForwarded = new ConcurrentHashMap<>();
+    private final long windowNanos;
+
+    public TypingThrottle(ApplicationProperties applicationProperties) {
+        this.windowNanos = applicationProperties.getChat().getTypingThrottle().toNanos();
+    }
+
+    /**
+     * @return whether the typing indicator of the sender should be forwarded to the receiver now.
+     */
+    public boolean tryForward(Long senderId, Long receiverId) {
+        long now = System.nanoTime();
+        boolean[] forward = { false };
+        lastForwarded.compute(new Key(senderId, receiverId), (_, last) -> {
+            if (last != null && now - last < windowNanos) {
+                return last;
+            }
+            forward[0] = true;
+            return now;
+        });
+        return forward[0];
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void removeStale() {
+        long now = System.nanoTime();
+        lastForwarded.values().removeIf(last -> now - last >= windowNanos);
+    }
+}
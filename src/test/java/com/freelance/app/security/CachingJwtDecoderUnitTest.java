@@ -0,0 +1,89 @@
+package com.freelance.app.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link CachingJwtDecoder}.
+ */
+class CachingJwtDecoderUnitTest {
+
+    private static final Instant ISSUED_AT = Instant.parse("2026-10-17T10:00:00Z");
+
+    private Instant now = ISSUED_AT;
+
+    private ReactiveJwtDecoder delegate;
+    private MeterRegistry registry;
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(ReactiveJwtDecoder.class);
+        when(delegate.decode("valid")).thenAnswer(_ -> Mono.just(jwt(ISSUED_AT.plusSeconds(60))));
+        when(delegate.decode("invalid")).thenAnswer(_ -> Mono.error(new BadJwtException("Failed to validate the token")));
+        registry = new SimpleMeterRegistry();
+
+        Clock clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        decoder = new CachingJwtDecoder(delegate, 10, registry, clock);
+    }
+
+    @Test
+    void testVerifiedTokenIsCachedUntilItExpires() {
+        decoder.decode("valid").block();
+        decoder.decode("valid").block();
+
+        verify(delegate, times(1)).decode("valid");
+        assertThat(registry.get("security.jwt.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(registry.get("security.jwt.verification").timer().count()).isEqualTo(1);
+
+        now = ISSUED_AT.plusSeconds(60);
+        decoder.decode("valid").block();
+
+        verify(delegate, times(2)).decode("valid");
+    }
+
+    @Test
+    void testInvalidTokenIsNotCached() {
+        assertThatThrownBy(() -> decoder.decode("invalid").block()).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("invalid").block()).isInstanceOf(BadJwtException.class);
+
+        assertThat(decoder.size()).isZero();
+        verify(delegate, times(2)).decode("invalid");
+    }
+
+    private static Jwt jwt(Instant expiresAt) {
+        return Jwt.withTokenValue("token").subject("user").issuedAt(ISSUED_AT).expiresAt(expiresAt).header("alg", "HS512").build();
+    }
+}
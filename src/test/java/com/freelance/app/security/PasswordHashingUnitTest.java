@@ -0,0 +1,128 @@
+package com.freelance.app.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.freelance.app.config.ApplicationProperties;
+import com.freelance.app.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link PasswordHashing}.
+ */
+class PasswordHashingUnitTest {
+
+    private MeterRegistry registry;
+    private PasswordHashing passwordHashing;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getPasswordHashing().setThreads(1);
+        properties.getPasswordHashing().setQueueSize(1);
+        properties.getPasswordHashing().setLoginAttemptsPerMinute(2);
+        registry = new SimpleMeterRegistry();
+        passwordHashing = new PasswordHashing(properties, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashing.destroy();
+    }
+
+    @Test
+    void testWorkBeyondTheQueueIsRejected() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mono<Boolean> running = passwordHashing.hash(() -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        });
+        Mono<String> queued = passwordHashing.hash(() -> "queued");
+
+        var first = running.toFuture();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        var second = queued.toFuture();
+
+        assertThatThrownBy(() -> passwordHashing.hash(() -> "rejected").block()).isInstanceOf(TooManyRequestsException.class);
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+        assertThat(registry.get("password.hashing.rejected").tag("reason", "queue-full").counter().count()).isEqualTo(1);
+        assertThat(registry.get("password.hashing.duration").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testLoginAttemptsAreLimitedPerLogin() {
+        passwordHashing.acquireLoginAttempt("user", "10.0.0.1").block();
+        passwordHashing.acquireLoginAttempt("USER", "10.0.0.2").block();
+
+        assertThatThrownBy(() -> passwordHashing.acquireLoginAttempt("user", "10.0.0.3").block()).isInstanceOf(
+            TooManyRequestsException.class
+        );
+        passwordHashing.acquireLoginAttempt("other", "10.0.0.3").block();
+    }
+
+    @Test
+    void testAttemptRejectedForTheLoginDoesNotCountAgainstTheAddress() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getPasswordHashing().setLoginAttemptsPerMinute(1);
+        properties.getPasswordHashing().setIpAttemptsPerMinute(2);
+        PasswordHashing limited = new PasswordHashing(properties, new SimpleMeterRegistry());
+        try {
+            limited.acquireLoginAttempt("user", "10.0.0.1").block();
+            for (int i = 0; i < 5; i++) {
+                assertThatThrownBy(() -> limited.acquireLoginAttempt("user", "10.0.0.1").block()).isInstanceOf(
+                    TooManyRequestsException.class
+                );
+            }
+            limited.acquireLoginAttempt("other", "10.0.0.1").block();
+        } finally {
+            limited.destroy();
+        }
+    }
+
+    @Test
+    void testSuccessfulLoginAttemptsAreGivenBack() {
+        for (int i = 0; i < 5; i++) {
+            passwordHashing.acquireLoginAttempt("user", "10.0.0.1").block();
+            passwordHashing.releaseLoginAttempt("user", "10.0.0.1");
+        }
+
+        passwordHashing.acquireLoginAttempt("user", "10.0.0.1").block();
+    }
+
+    @Test
+    void testKeysDoNotShareTokens() {
+        TokenBuckets buckets = new TokenBuckets(1, Duration.ofMinutes(1), 1_000_000, () -> 0);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(buckets.tryAcquire("key" + i)).isTrue();
+        }
+        assertThat(buckets.tryAcquire("key0")).isFalse();
+    }
+
+    @Test
+    void testTokensAreRefilledOverTime() {
+        AtomicLong clock = new AtomicLong();
+        TokenBuckets buckets = new TokenBuckets(2, Duration.ofSeconds(2), 1_000, clock::get);
+
+        assertThat(buckets.tryAcquire("a")).isTrue();
+        assertThat(buckets.tryAcquire("a")).isTrue();
+        assertThat(buckets.tryAcquire("a")).isFalse();
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(buckets.tryAcquire("a")).isTrue();
+        assertThat(buckets.tryAcquire("a")).isFalse();
+    }
+}
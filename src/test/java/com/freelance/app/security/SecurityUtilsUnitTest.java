@@ -1,5 +1,6 @@
 package com.freelance.app.security;
 
+import static com.freelance.app.security.SecurityUtils.PROFILE_ID_CLAIM;
 import static com.freelance.app.security.SecurityUtils.USER_ID_CLAIM;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -54,6 +55,24 @@ class SecurityUtilsUnitTest {
         assertThat(contextUserId).isEqualTo(userId);
     }
 
+    @Test
+    void testGetCurrentProfileId() {
+        var now = Instant.now();
+        var jwt = Jwt.withTokenValue("token")
+            .issuedAt(now)
+            .expiresAt(now.plusSeconds(60))
+            .claim(PROFILE_ID_CLAIM, 2)
+            .header("Test", "test")
+            .build();
+
+        var authentication = new UsernamePasswordAuthenticationToken(jwt, "token");
+        var profileId = SecurityUtils.getCurrentProfileId()
+            .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication))
+            .block();
+
+        assertThat(profileId).isEqualTo(2L);
+    }
+
     @Test
     void testIsAuthenticated() {
         Boolean isAuthenticated = SecurityUtils.isAuthenticated()
@@ -0,0 +1,39 @@
+package com.freelance.app.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+/**
+ * Test class for the {@link TrustedProxies}.
+ */
+class TrustedProxiesUnitTest {
+
+    private final TrustedProxies trustedProxies = new TrustedProxies(List.of("10.0.0.0/8", "::1"));
+
+    @Test
+    void testForwardedForIsIgnoredFromUntrustedPeers() {
+        assertThat(trustedProxies.clientAddress(request("203.0.113.7", "198.51.100.1"))).isEqualTo("203.0.113.7");
+        assertThat(new TrustedProxies(List.of()).clientAddress(request("10.0.0.1", "198.51.100.1"))).isEqualTo("10.0.0.1");
+        assertThat(trustedProxies.clientAddress(request("::1", "198.51.100.1"))).isEqualTo("198.51.100.1");
+    }
+
+    @Test
+    void testClientIsTheLastAddressBeforeTheTrustedProxies() {
+        assertThat(trustedProxies.clientAddress(request("10.0.0.1", "198.51.100.1"))).isEqualTo("198.51.100.1");
+        assertThat(trustedProxies.clientAddress(request("10.0.0.1", "1.2.3.4, 198.51.100.1, 10.0.0.2"))).isEqualTo("198.51.100.1");
+        assertThat(trustedProxies.clientAddress(request("10.0.0.1", "not-an-address, 10.0.0.3"))).isEqualTo("not-an-address");
+        assertThat(trustedProxies.clientAddress(request("10.0.0.1", "300.0.0.1"))).isEqualTo("300.0.0.1");
+    }
+
+    private static ServerHttpRequest request(String peer, String forwardedFor) {
+        return MockServerHttpRequest.get("/api/authenticate")
+            .remoteAddress(new InetSocketAddress(peer, 443))
+            .header("X-Forwarded-For", forwardedFor)
+            .build();
+    }
+}
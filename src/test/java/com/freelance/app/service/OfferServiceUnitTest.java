@@ -0,0 +1,120 @@
+package com.freelance.app.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.freelance.app.config.ApplicationProperties;
+import com.freelance.app.domain.FileObject;
+import com.freelance.app.domain.Offer;
+import com.freelance.app.domain.OfferMedia;
+import com.freelance.app.domain.Profile;
+import com.freelance.app.repository.FileObjectRepository;
+import com.freelance.app.repository.FileRenditionRepository;
+import com.freelance.app.repository.OfferMediaRepository;
+import com.freelance.app.repository.OfferRepository;
+import com.freelance.app.repository.OfferTypeRepository;
+import com.freelance.app.repository.TagRepository;
+import com.freelance.app.util.FileProcessUtil;
+import com.freelance.app.util.ImageRenditionUtil;
+import com.freelance.app.util.MinioUtil;
+import com.freelance.app.util.OfferBatchLoader;
+import com.freelance.app.util.ProfileHelper;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link OfferService}.
+ */
+class OfferServiceUnitTest {
+
+    private static final Long SHARED_FILE_ID = 7L;
+
+    private OfferRepository offerRepository;
+    private OfferMediaRepository offerMediaRepository;
+    private FileObjectRepository fileObjectRepository;
+    private MinioUtil minioUtil;
+    private OfferService offerService;
+
+    @BeforeEach
+    void setUp() {
+        offerRepository = mock(OfferRepository.class);
+        offerMediaRepository = mock(OfferMediaRepository.class);
+        fileObjectRepository = mock(FileObjectRepository.class);
+        minioUtil = mock(MinioUtil.class);
+        FileRenditionRepository fileRenditionRepository = mock(FileRenditionRepository.class);
+        ProfileHelper profileHelper = mock(ProfileHelper.class);
+
+        when(profileHelper.getCurrentProfile()).thenReturn(Mono.just(new Profile().id(1L)));
+        when(offerRepository.deleteById(any(Long.class))).thenReturn(Mono.empty());
+        when(offerMediaRepository.deleteAllByOffer(any(Long.class))).thenReturn(Mono.empty());
+        when(fileRenditionRepository.findByFileIds(any())).thenReturn(Flux.empty());
+        when(minioUtil.deleteAll(anyString(), any())).thenReturn(Mono.empty());
+        for (long offerId : new long[] { 1L, 2L }) {
+            Offer offer = new Offer().id(offerId);
+            offer.setOwnerId(1L);
+            OfferMedia media = new OfferMedia().id(offerId);
+            media.setFileId(SHARED_FILE_ID);
+            when(offerRepository.findById(offerId)).thenReturn(Mono.just(offer));
+            when(offerMediaRepository.findByOffer(offerId)).thenReturn(Flux.just(media));
+        }
+
+        FileProcessUtil fileProcessUtil = new FileProcessUtil(
+            fileObjectRepository,
+            new ApplicationProperties(),
+            minioUtil,
+            mock(ImageRenditionUtil.class),
+            fileRenditionRepository
+        );
+        offerService = new OfferService(
+            offerRepository,
+            mock(OfferTypeRepository.class),
+            offerMediaRepository,
+            profileHelper,
+            mock(TagRepository.class),
+            mock(OfferBatchLoader.class),
+            fileProcessUtil
+        );
+    }
+
+    @Test
+    void testDeletingOneOfTwoOffersSharingAnUploadKeepsTheFile() {
+        when(fileObjectRepository.releaseByIds(new Long[] { SHARED_FILE_ID })).thenReturn(Flux.just(storedFile(1)));
+
+        offerService.deleteOffer(1L).block();
+
+        InOrder order = inOrder(offerMediaRepository, fileObjectRepository, offerRepository);
+        order.verify(offerMediaRepository).deleteAllByOffer(1L);
+        order.verify(fileObjectRepository).releaseByIds(new Long[] { SHARED_FILE_ID });
+        order.verify(offerRepository).deleteById(1L);
+        verify(fileObjectRepository, never()).deleteUnreferencedByIds(any());
+        verify(minioUtil, never()).deleteAll(anyString(), any());
+    }
+
+    @Test
+    void testDeletingTheLastOfferSharingAnUploadRemovesTheFile() {
+        when(fileObjectRepository.releaseByIds(new Long[] { SHARED_FILE_ID })).thenReturn(
+            Flux.just(storedFile(1)),
+            Flux.just(storedFile(0))
+        );
+        when(fileObjectRepository.deleteUnreferencedByIds(new Long[] { SHARED_FILE_ID })).thenReturn(Flux.just(storedFile(0)));
+
+        offerService.deleteOffer(1L).block();
+        offerService.deleteOffer(2L).block();
+
+        verify(fileObjectRepository).deleteUnreferencedByIds(new Long[] { SHARED_FILE_ID });
+        verify(minioUtil).deleteAll("bucket", List.of("users/user/offer-media/shared.jpg"));
+    }
+
+    private static FileObject storedFile(int refCount) {
+        return new FileObject().id(SHARED_FILE_ID).bucket("bucket").objectKey("users/user/offer-media/shared.jpg").refCount(refCount);
+    }
+}
@@ -0,0 +1,118 @@
+package com.freelance.app.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.freelance.app.config.ApplicationProperties;
+import com.freelance.app.domain.FileObject;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+
+/**
+ * Test class for the {@link BlobCache} utility class.
+ */
+class BlobCacheUnitTest {
+
+    private static final String BUCKET = "bucket";
+
+    @TempDir
+    Path directory;
+
+    private MinioUtil minioUtil;
+    private MeterRegistry registry;
+    private BlobCache blobCache;
+
+    @BeforeEach
+    void setUp() {
+        minioUtil = mock(MinioUtil.class);
+        when(minioUtil.download(eq(BUCKET), anyString())).thenAnswer(invocation ->
+            Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(content(invocation.getArgument(1))))
+        );
+        registry = new SimpleMeterRegistry();
+
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getBlobCache().setDirectory(directory.toString());
+        properties.getBlobCache().setMaxSize(DataSize.ofBytes(20));
+        properties.getBlobCache().setMaxEntrySize(DataSize.ofBytes(10));
+        blobCache = new BlobCache(minioUtil, properties, registry);
+    }
+
+    @Test
+    void testMissDownloadsOnceThenHits() throws Exception {
+        FileObject file = file("a", content("a"));
+
+        Path first = blobCache.get(file).block();
+        Path second = blobCache.get(file).block();
+
+        assertThat(first).isEqualTo(second);
+        assertThat(Files.readAllBytes(first)).isEqualTo(content("a"));
+        verify(minioUtil, times(1)).download(BUCKET, "a");
+        assertThat(registry.get("blob.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(registry.get("blob.cache.requests").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testChecksumMismatchIsNotCached() {
+        FileObject file = file("a", content("a")).checksum("0".repeat(64));
+
+        assertThat(blobCache.get(file).block()).isNull();
+        assertThat(blobCache.currentEntries()).isZero();
+    }
+
+    @Test
+    void testLeastRecentlyUsedIsEvicted() {
+        FileObject a = file("a", content("a"));
+        FileObject b = file("b", content("b"));
+        FileObject c = file("c", content("c"));
+
+        Path pathA = blobCache.get(a).block();
+        Path pathB = blobCache.get(b).block();
+        blobCache.get(a).block();
+        blobCache.get(c).block();
+
+        assertThat(pathA).exists();
+        assertThat(pathB).doesNotExist();
+        assertThat(blobCache.currentSize()).isEqualTo(18);
+        assertThat(registry.get("blob.cache.evictions").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testLargeFilesAreNotCached() {
+        FileObject file = file("a", content("a")).fileSize(11L);
+
+        assertThat(blobCache.get(file).block()).isNull();
+        verify(minioUtil, times(0)).download(BUCKET, "a");
+    }
+
+    private static byte[] content(String key) {
+        return ("content-" + key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static FileObject file(String key, byte[] content) {
+        try {
+            return new FileObject()
+                .bucket(BUCKET)
+                .objectKey(key)
+                .fileSize((long) content.length)
+                .checksum(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
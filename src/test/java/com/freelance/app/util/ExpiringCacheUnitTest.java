@@ -0,0 +1,103 @@
+package com.freelance.app.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Test class for the {@link ExpiringCache} utility class.
+ */
+class ExpiringCacheUnitTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private MeterRegistry registry;
+    private ExpiringCache<String, Long> cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new ExpiringCache<>("test", 2, Duration.ofSeconds(10), registry, clock::get);
+    }
+
+    @Test
+    void testLoadsOnceThenHits() {
+        assertThat(cache.get("a", this::load).block()).isEqualTo(1L);
+        assertThat(cache.get("a", this::load).block()).isEqualTo(1L);
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", "test").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", "test").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testEntriesExpire() {
+        cache.get("a", this::load).block();
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        assertThat(cache.getIfPresent("a")).isNull();
+        assertThat(cache.get("a", this::load).block()).isEqualTo(2L);
+    }
+
+    @Test
+    void testLeastRecentlyUsedIsEvicted() {
+        cache.get("a", this::load).block();
+        cache.get("b", this::load).block();
+        cache.getIfPresent("a");
+        cache.get("c", this::load).block();
+
+        assertThat(cache.getIfPresent("a")).isNotNull();
+        assertThat(cache.getIfPresent("b")).isNull();
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testConcurrentMissesShareOneLoad() {
+        Sinks.One<Long> result = Sinks.one();
+        Function<String, Mono<Long>> loader = _ -> {
+            loads.incrementAndGet();
+            return result.asMono();
+        };
+
+        Mono<Long> first = cache.get("a", loader);
+        Mono<Long> second = cache.get("a", loader);
+        result.tryEmitValue(7L);
+
+        assertThat(first.block()).isEqualTo(7L);
+        assertThat(second.block()).isEqualTo(7L);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testLoadOverlappingInvalidationIsNotCached() {
+        Sinks.One<Long> result = Sinks.one();
+        Mono<Long> pending = cache.get("a", _ -> result.asMono());
+        pending.subscribe();
+
+        cache.invalidate("a");
+        result.tryEmitValue(7L);
+
+        assertThat(pending.block()).isEqualTo(7L);
+        assertThat(cache.getIfPresent("a")).isNull();
+    }
+
+    @Test
+    void testEmptyResultIsNotCached() {
+        assertThat(cache.get("a", _ -> Mono.empty()).block()).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    private Mono<Long> load(String key) {
+        return Mono.fromSupplier(() -> (long) loads.incrementAndGet());
+    }
+}
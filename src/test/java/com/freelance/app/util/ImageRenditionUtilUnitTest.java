@@ -0,0 +1,53 @@
+package com.freelance.app.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.freelance.app.domain.FileObject;
+import com.freelance.app.domain.FileRendition;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+/**
+ * Test class for the {@link ImageRenditionUtil} utility class.
+ */
+class ImageRenditionUtilUnitTest {
+
+    @Test
+    void testRenditionKeyKeepsExtension() {
+        assertThat(ImageRenditionUtil.renditionKey("users/john/offer-media/abc.jpg", 480)).isEqualTo("users/john/offer-media/abc_480.jpg");
+        assertThat(ImageRenditionUtil.renditionKey("users/john.doe/offer-media/abc", 160)).isEqualTo("users/john.doe/offer-media/abc_160");
+    }
+
+    @Test
+    void testPickReturnsSmallestWideEnoughRendition() {
+        List<FileRendition> renditions = List.of(
+            new FileRendition().width(1080),
+            new FileRendition().width(160),
+            new FileRendition().width(480)
+        );
+
+        assertThat(ImageRenditionUtil.pick(renditions, 160)).get().extracting(FileRendition::getWidth).isEqualTo(160);
+        assertThat(ImageRenditionUtil.pick(renditions, 200)).get().extracting(FileRendition::getWidth).isEqualTo(480);
+        assertThat(ImageRenditionUtil.pick(renditions, 2000)).isEmpty();
+        assertThat(ImageRenditionUtil.pick(List.of(), 160)).isEmpty();
+    }
+
+    @Test
+    void testImageOverThePixelLimitIsNotDecoded() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB), "png", png);
+        FileObject original = new FileObject().objectKey("users/john/offer-media/abc.png");
+        DefaultDataBufferFactory buffers = DefaultDataBufferFactory.sharedInstance;
+
+        assertThat(ImageRenditionUtil.readImage(original, buffers.wrap(png.toByteArray()), 20_000).getWidth()).isEqualTo(200);
+        assertThatThrownBy(() -> ImageRenditionUtil.readImage(original, buffers.wrap(png.toByteArray()), 19_999)).isInstanceOf(
+            UncheckedIOException.class
+        );
+    }
+}
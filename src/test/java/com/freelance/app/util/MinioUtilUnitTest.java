@@ -0,0 +1,47 @@
+package com.freelance.app.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+/**
+ * Test class for the {@link MinioUtil} utility class.
+ */
+class MinioUtilUnitTest {
+
+    @Test
+    void testChunkSplitsIntoFullPartsAndFlagsTheLast() {
+        List<MinioUtil.Chunk> chunks = MinioUtil.chunk(buffers("abc", "defgh", "ij"), 4).collectList().block();
+
+        assertThat(chunks).extracting(chunk -> new String(chunk.data())).containsExactly("abcd", "efgh", "ij");
+        assertThat(chunks).extracting(MinioUtil.Chunk::last).containsExactly(false, false, true);
+    }
+
+    @Test
+    void testChunkOfExactMultipleEndsWithFullPart() {
+        List<MinioUtil.Chunk> chunks = MinioUtil.chunk(buffers("abcdefgh"), 4).collectList().block();
+
+        assertThat(chunks).extracting(chunk -> new String(chunk.data())).containsExactly("abcd", "efgh");
+        assertThat(chunks).extracting(MinioUtil.Chunk::last).containsExactly(false, true);
+    }
+
+    @Test
+    void testChunkOfSmallOrEmptyBodyIsSinglePart() {
+        assertThat(MinioUtil.chunk(buffers("ab"), 4).collectList().block()).singleElement().satisfies(chunk -> {
+            assertThat(new String(chunk.data())).isEqualTo("ab");
+            assertThat(chunk.last()).isTrue();
+        });
+        assertThat(MinioUtil.chunk(Flux.empty(), 4).collectList().block()).singleElement().satisfies(chunk -> {
+            assertThat(chunk.data()).isEmpty();
+            assertThat(chunk.last()).isTrue();
+        });
+    }
+
+    private static Flux<DataBuffer> buffers(String... parts) {
+        return Flux.fromArray(parts).map(part -> DefaultDataBufferFactory.sharedInstance.wrap(part.getBytes()));
+    }
+}
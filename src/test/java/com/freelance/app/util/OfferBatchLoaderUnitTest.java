@@ -0,0 +1,63 @@
+package com.freelance.app.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.freelance.app.domain.FileObject;
+import com.freelance.app.domain.Offer;
+import com.freelance.app.domain.OfferMedia;
+import com.freelance.app.repository.FileObjectRepository;
+import com.freelance.app.repository.OfferMediaRepository;
+import com.freelance.app.repository.ProfileRepository;
+import com.freelance.app.service.dto.OfferShortDTO;
+import com.freelance.app.service.dto.ProfileDTO;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link OfferBatchLoader} utility class.
+ */
+class OfferBatchLoaderUnitTest {
+
+    @Test
+    void testOwnerPicturesAreNotLoadedAgain() {
+        ProfileRepository profileRepository = mock(ProfileRepository.class);
+        OfferMediaRepository offerMediaRepository = mock(OfferMediaRepository.class);
+        FileObjectRepository fileObjectRepository = mock(FileObjectRepository.class);
+        ImageHelper imageHelper = mock(ImageHelper.class);
+
+        ProfileDTO owner = new ProfileDTO();
+        owner.setId(1L);
+        owner.setProfilePictureId(10L);
+        owner.setProfilePicture(new FileObject().id(10L));
+        OfferMedia media = new OfferMedia();
+        media.setOfferId(100L);
+        media.setFileId(20L);
+
+        when(profileRepository.findDTOsByIds(new Long[] { 1L })).thenReturn(Flux.just(owner));
+        when(offerMediaRepository.findByOfferIds(new Long[] { 100L })).thenReturn(Flux.just(media));
+        when(fileObjectRepository.findAllByIds(new Long[] { 20L })).thenReturn(Flux.just(new FileObject().id(20L)));
+        when(imageHelper.fetchImageUrls(anyCollection(), any())).thenAnswer(invocation -> {
+            Collection<FileObject> files = invocation.getArgument(0);
+            return Mono.just(files.stream().collect(Collectors.toMap(FileObject::getId, file -> "url-" + file.getId())));
+        });
+
+        Offer offer = new Offer().id(100L);
+        offer.setOwnerId(1L);
+        List<OfferShortDTO> offers = new OfferBatchLoader(profileRepository, offerMediaRepository, fileObjectRepository, imageHelper)
+            .load(List.of(offer))
+            .block();
+
+        assertThat(offers).hasSize(1);
+        assertThat(offers.getFirst().getOwner().getImageUrl()).isEqualTo("url-10");
+        verify(fileObjectRepository).findAllByIds(new Long[] { 20L });
+    }
+}
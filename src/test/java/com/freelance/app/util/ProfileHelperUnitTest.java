@@ -0,0 +1,112 @@
+package com.freelance.app.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.freelance.app.config.ApplicationProperties;
+import com.freelance.app.domain.Profile;
+import com.freelance.app.domain.User;
+import com.freelance.app.repository.ProfileRepository;
+import com.freelance.app.repository.UserRepository;
+import com.freelance.app.security.SecurityUtils;
+import com.freelance.app.web.rest.errors.NotFoundAlertException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Test class for the {@link ProfileHelper} utility class.
+ */
+class ProfileHelperUnitTest {
+
+    private static final String LOGIN = "user";
+
+    private ProfileRepository profileRepository;
+    private UserRepository userRepository;
+    private ProfileHelper profileHelper;
+
+    @BeforeEach
+    void setUp() {
+        profileRepository = mock(ProfileRepository.class);
+        when(profileRepository.findIdByUserLogin(LOGIN)).thenReturn(Mono.just(1L));
+        when(profileRepository.findById(1L)).thenAnswer(_ -> Mono.just(new Profile().id(1L).firstName("first")));
+        ApplicationProperties properties = new ApplicationProperties();
+        userRepository = mock(UserRepository.class);
+        profileHelper = new ProfileHelper(userRepository, profileRepository, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testCurrentProfileIsResolvedOncePerExchange() {
+        Mono<Profile> current = profileHelper.getCurrentProfile();
+
+        Profile[] profiles = current
+            .zipWith(current, (first, second) -> new Profile[] { first, second })
+            .contextWrite(ProfileHelper::requestScope)
+            .contextWrite(ReactiveSecurityContextHolder.withAuthentication(new UsernamePasswordAuthenticationToken(LOGIN, LOGIN)))
+            .block();
+
+        assertThat(profiles[0]).isSameAs(profiles[1]);
+        verify(profileRepository, times(1)).findIdByUserLogin(LOGIN);
+        verify(profileRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testProfileIdClaimIsUsedWithoutLookingUpTheLogin() {
+        Profile profile = profileHelper.getCurrentProfile().contextWrite(withProfileIdClaim(1L)).block();
+
+        assertThat(profile.getId()).isEqualTo(1L);
+        verify(profileRepository, never()).findIdByUserLogin(LOGIN);
+    }
+
+    @Test
+    void testProfileIdClaimOfADeletedProfileFallsBackToTheLogin() {
+        when(profileRepository.findById(2L)).thenReturn(Mono.empty());
+
+        assertThat(profileHelper.getCurrentProfileId().contextWrite(withProfileIdClaim(2L)).block()).isEqualTo(1L);
+        assertThat(profileHelper.getCurrentProfile().contextWrite(withProfileIdClaim(2L)).block().getId()).isEqualTo(1L);
+        verify(profileRepository, times(1)).findIdByUserLogin(LOGIN);
+    }
+
+    @Test
+    void testUserWithoutProfileIsNotFound() {
+        User user = new User();
+        user.setId(3L);
+        when(userRepository.findOneByLogin(LOGIN)).thenReturn(Mono.just(user));
+        when(profileRepository.findById(2L)).thenReturn(Mono.empty());
+        when(profileRepository.findIdByUserLogin(LOGIN)).thenReturn(Mono.empty());
+
+        assertThatThrownBy(() -> profileHelper.getCurrentProfileId().contextWrite(withProfileIdClaim(2L)).block()).isInstanceOf(
+            NotFoundAlertException.class
+        );
+    }
+
+    private static Context withProfileIdClaim(Long profileId) {
+        Jwt jwt = Jwt.withTokenValue("token").subject(LOGIN).claim(SecurityUtils.PROFILE_ID_CLAIM, profileId).header("alg", "none").build();
+        return ReactiveSecurityContextHolder.withAuthentication(new UsernamePasswordAuthenticationToken(jwt, "token"));
+    }
+
+    @Test
+    void testCachedProfileIsCopiedAndEvicted() {
+        Profile first = profileHelper.getProfileFromUserLogin(LOGIN).block();
+        first.setFirstName("changed");
+
+        assertThat(profileHelper.getProfileFromUserLogin(LOGIN).block().getFirstName()).isEqualTo("first");
+        verify(profileRepository, times(1)).findById(1L);
+
+        profileHelper.evictProfile(1L);
+        profileHelper.getProfileFromUserLogin(LOGIN).block();
+
+        verify(profileRepository, times(2)).findById(1L);
+        verify(profileRepository, times(1)).findIdByUserLogin(LOGIN);
+    }
+}
@@ -0,0 +1,241 @@
+package com.freelance.app.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.freelance.app.config.ApplicationProperties;
+import com.freelance.app.config.ApplicationProperties.Chat.OverflowPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link ConversationBroadcaster}.
+ */
+class ConversationBroadcasterUnitTest {
+
+    private final ObjectMapper om = new ObjectMapper();
+
+    private MeterRegistry registry;
+    private ApplicationProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        properties = new ApplicationProperties();
+        properties.getChat().setSessionBufferSize(2);
+    }
+
+    private ConversationBroadcaster broadcaster() {
+        return new ConversationBroadcaster(new LocalBroadcastBackend(registry), properties, registry);
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+
+    @Test
+    void testUserIsTrackedUntilLastSessionCloses() {
+        ConversationBroadcaster broadcaster = broadcaster();
+
+        Disposable first = broadcaster.flux(1L).subscribe();
+        Disposable second = broadcaster.flux(1L).subscribe();
+        assertThat(gauge("chat.online.users")).isEqualTo(1);
+
+        first.dispose();
+        assertThat(gauge("chat.online.users")).isEqualTo(1);
+        second.dispose();
+        assertThat(gauge("chat.online.users")).isZero();
+    }
+
+    @Test
+    void testOnlineAsksTheBackendOnlyForUsersNotConnectedHere() {
+        List<Long> asked = new ArrayList<>();
+        List<String> changes = new ArrayList<>();
+        ConversationBroadcaster broadcaster = new ConversationBroadcaster(
+            new LocalBroadcastBackend(registry) {
+                @Override
+                public void connected(Long userId) {
+                    changes.add("+" + userId);
+                }
+
+                @Override
+                public void disconnected(Long userId) {
+                    changes.add("-" + userId);
+                }
+
+                @Override
+                public Mono<Set<Long>> onlineElsewhere(Collection<Long> userIds) {
+                    asked.addAll(userIds);
+                    return Mono.just(Set.of(2L));
+                }
+            },
+            properties,
+            registry
+        );
+
+        Disposable session = broadcaster.flux(1L).subscribe();
+        assertThat(broadcaster.online(List.of(1L, 2L, 3L)).block()).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(asked).containsExactly(2L, 3L);
+        session.dispose();
+        assertThat(changes).containsExactly("+1", "-1");
+    }
+
+    @Test
+    void testPublishToOfflineUserIsDropped() {
+        ConversationBroadcaster broadcaster = broadcaster();
+
+        broadcaster.publish(1L, "a").block();
+
+        assertThat(gauge("chat.online.users")).isZero();
+        assertThat(gauge("chat.buffered.messages")).isZero();
+    }
+
+    @Test
+    void testSlowSessionDropsOldest() {
+        ConversationBroadcaster broadcaster = broadcaster();
+        Session session = new Session();
+        broadcaster.flux(1L).subscribe(session);
+
+        broadcaster.publish(1L, "a").block();
+        broadcaster.publish(1L, "b").block();
+        broadcaster.publish(1L, "c").block();
+        assertThat(gauge("chat.buffered.messages")).isEqualTo(2);
+
+        session.request(2);
+        assertThat(session.received).containsExactly("b", "c");
+        assertThat(registry.get("chat.dropped.messages").counter().count()).isEqualTo(1);
+        assertThat(gauge("chat.buffered.messages")).isZero();
+        session.dispose();
+    }
+
+    @Test
+    void testSlowSessionIsDisconnected() {
+        properties.getChat().setOverflowPolicy(OverflowPolicy.DISCONNECT);
+        ConversationBroadcaster broadcaster = broadcaster();
+        Session session = new Session();
+        broadcaster.flux(1L).subscribe(session);
+
+        broadcaster.publish(1L, "a").block();
+        broadcaster.publish(1L, "b").block();
+        broadcaster.publish(1L, "c").block();
+
+        assertThat(session.error).isInstanceOf(ConversationBroadcaster.SlowConsumerException.class);
+        assertThat(gauge("chat.online.users")).isZero();
+        assertThat(gauge("chat.buffered.messages")).isZero();
+    }
+
+    @Test
+    void testEventsAreNumberedPerUser() throws Exception {
+        ConversationBroadcaster broadcaster = broadcaster();
+        Session session = new Session();
+        broadcaster.flux(1L).subscribe(session);
+        session.request(Long.MAX_VALUE);
+
+        broadcaster.publish(1L, "{\"type\":\"a\"}").block();
+        broadcaster.publish(1L, "{}").block();
+
+        JsonNode first = om.readTree(session.received.get(0));
+        JsonNode second = om.readTree(session.received.get(1));
+        assertThat(first.get("type").asText()).isEqualTo("a");
+        assertThat(second.get("seq").asLong()).isEqualTo(first.get("seq").asLong() + 1);
+        session.dispose();
+    }
+
+    @Test
+    void testResumeReplaysFromBuffer() throws Exception {
+        ConversationBroadcaster broadcaster = broadcaster();
+        Session first = new Session();
+        broadcaster.flux(1L).subscribe(first);
+        first.request(Long.MAX_VALUE);
+        broadcaster.publish(1L, "{\"type\":\"a\"}").block();
+        broadcaster.publish(1L, "{\"type\":\"b\"}").block();
+        first.dispose();
+        broadcaster.publish(1L, "{\"type\":\"c\"}").block();
+
+        Session session = new Session();
+        broadcaster.flux(1L, seq(first.received.get(0))).subscribe(session);
+        session.request(Long.MAX_VALUE);
+
+        assertThat(types(session)).containsExactly("b", "c");
+        assertThat(registry.get("chat.resumes").tag("source", "memory").counter().count()).isEqualTo(1);
+        session.dispose();
+    }
+
+    @Test
+    void testResumeAfterAnUnknownEventResyncs() throws Exception {
+        ConversationBroadcaster broadcaster = broadcaster();
+
+        Session session = new Session();
+        broadcaster.flux(1L, 5L).subscribe(session);
+        session.request(Long.MAX_VALUE);
+        broadcaster.publish(1L, "{\"type\":\"live\"}").block();
+
+        assertThat(types(session)).containsExactly("chat.resync", "live");
+        assertThat(registry.get("chat.resumes").tag("source", "resync").counter().count()).isEqualTo(1);
+        session.dispose();
+    }
+
+    @Test
+    void testResumeAfterTheUserWasForgottenResyncs() throws Exception {
+        properties.getChat().setReplayRetention(Duration.ZERO);
+        ConversationBroadcaster broadcaster = broadcaster();
+        Session first = new Session();
+        broadcaster.flux(1L).subscribe(first);
+        first.request(Long.MAX_VALUE);
+        broadcaster.publish(1L, "{\"type\":\"a\"}").block();
+        first.dispose();
+
+        Session session = new Session();
+        broadcaster.flux(1L, seq(first.received.get(0))).subscribe(session);
+        session.request(Long.MAX_VALUE);
+
+        assertThat(types(session)).containsExactly("chat.resync");
+        session.dispose();
+    }
+
+    private long seq(String json) throws Exception {
+        return om.readTree(json).get("seq").asLong();
+    }
+
+    private List<String> types(Session session) throws Exception {
+        List<String> types = new ArrayList<>();
+        for (String json : session.received) {
+            types.add(om.readTree(json).get("type").asText());
+        }
+        return types;
+    }
+
+    /**
+     * A session that does not read until asked to.
+     */
+    private static class Session extends BaseSubscriber<String> {
+
+        private final List<String> received = new ArrayList<>();
+        private Throwable error;
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {}
+
+        @Override
+        protected void hookOnNext(String value) {
+            received.add(value);
+        }
+
+        @Override
+        protected void hookOnError(Throwable throwable) {
+            error = throwable;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.freelance.app.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.freelance.app.domain.Conversation;
+import com.freelance.app.repository.ConversationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link ConversationResolver}.
+ */
+class ConversationResolverUnitTest {
+
+    private ConversationRepository conversationRepository;
+    private ConversationResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        conversationRepository = mock(ConversationRepository.class);
+        resolver = new ConversationResolver(conversationRepository);
+    }
+
+    @Test
+    void testCreatedConversationIsCachedForBothOrderings() {
+        when(conversationRepository.insertIfAbsent(any(), any(), any())).thenReturn(Mono.just(new Conversation().id(7L)));
+
+        assertThat(resolver.resolve(1L, 2L).block()).isEqualTo(7L);
+        assertThat(resolver.resolve(2L, 1L).block()).isEqualTo(7L);
+
+        verify(conversationRepository, times(1)).insertIfAbsent(any(), any(), any());
+    }
+
+    @Test
+    void testExistingConversationIsLookedUpAfterConflict() {
+        when(conversationRepository.insertIfAbsent(any(), any(), any())).thenReturn(Mono.empty());
+        when(conversationRepository.findBetween(1L, 2L)).thenReturn(Mono.just(new Conversation().id(3L)));
+
+        assertThat(resolver.resolve(1L, 2L).block()).isEqualTo(3L);
+    }
+
+    @Test
+    void testFindDoesNotCreateConversation() {
+        when(conversationRepository.findBetween(1L, 2L)).thenReturn(Mono.empty());
+
+        assertThat(resolver.find(1L, 2L).block()).isNull();
+
+        verify(conversationRepository, never()).insertIfAbsent(any(), any(), any());
+    }
+}
@@ -0,0 +1,88 @@
+package com.freelance.app.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.freelance.app.config.ApplicationProperties;
+import com.freelance.app.domain.Message;
+import com.freelance.app.repository.MessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link MessageBatcher}.
+ */
+class MessageBatcherUnitTest {
+
+    private MessageRepository messageRepository;
+    private MessageBatcher batcher;
+    private SimpleMeterRegistry registry;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        messageRepository = mock(MessageRepository.class);
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getChat().setWriteBatchSize(3);
+        properties.getChat().setWriteBatchDelay(Duration.ofSeconds(10));
+        registry = new SimpleMeterRegistry();
+        batcher = new MessageBatcher(messageRepository, properties, registry);
+    }
+
+    @Test
+    void testFullBatchIsStoredWithOneInsert() {
+        when(messageRepository.insertAll(anyList())).thenAnswer(invocation ->
+            Flux.fromIterable(invocation.<List<Message>>getArgument(0)).map(message -> message.id(sequence.incrementAndGet()))
+        );
+
+        List<Mono<Message>> saved = List.of(
+            batcher.save(message("a")).cache(),
+            batcher.save(message("b")).cache(),
+            batcher.save(message("c")).cache()
+        );
+
+        assertThat(saved.stream().map(mono -> mono.block(Duration.ofSeconds(1)).getId())).containsExactly(1L, 2L, 3L);
+        verify(messageRepository, times(1)).insertAll(anyList());
+    }
+
+    @Test
+    void testFailedBatchFallsBackToSingleInserts() {
+        when(messageRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Message> messages = invocation.getArgument(0);
+            return messages.size() > 1 || "bad".equals(messages.getFirst().getBody())
+                ? Flux.error(new IllegalStateException("constraint"))
+                : Flux.just(messages.getFirst().id(sequence.incrementAndGet()));
+        });
+
+        Mono<Message> first = batcher.save(message("a")).cache();
+        Mono<Message> bad = batcher.save(message("bad")).cache();
+        Mono<Message> last = batcher.save(message("c")).cache();
+
+        assertThat(first.block(Duration.ofSeconds(1)).getId()).isEqualTo(1L);
+        assertThatThrownBy(() -> bad.block(Duration.ofSeconds(1))).hasMessageContaining("constraint");
+        assertThat(last.block(Duration.ofSeconds(1)).getId()).isEqualTo(2L);
+    }
+
+    @Test
+    void testMessageQueuedAfterShutdownFailsItsSenderOnly() {
+        batcher.destroy();
+
+        assertThatThrownBy(() -> batcher.save(message("late")).block(Duration.ofSeconds(1))).hasMessageContaining("FAIL_TERMINATED");
+        assertThat(registry.get("chat.message.rejected").tag("result", "FAIL_TERMINATED").counter().count()).isEqualTo(1);
+    }
+
+    private static Message message(String body) {
+        return new Message().body(body).conversationId(1L).senderId(1L).receiverId(2L);
+    }
+}
@@ -0,0 +1,105 @@
+package com.freelance.app.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.freelance.app.config.ApplicationProperties;
+import com.freelance.app.repository.ConversationRepository;
+import com.freelance.app.service.dto.ReadMarkDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+/**
+ * Test class for the {@link ReadReceiptTracker}.
+ */
+class ReadReceiptTrackerUnitTest {
+
+    private ConversationRepository conversationRepository;
+    private ConversationBroadcaster broadcaster;
+    private ReadReceiptTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        conversationRepository = mock(ConversationRepository.class);
+        broadcaster = new ConversationBroadcaster(new LocalBroadcastBackend(registry), new ApplicationProperties(), registry);
+        tracker = new ReadReceiptTracker(conversationRepository, broadcaster, new ObjectMapper(), registry);
+    }
+
+    @Test
+    void testMarksAreCoalescedIntoOneWrite() {
+        when(conversationRepository.markRead(any(), any(), any())).thenReturn(Flux.just(new ReadMarkDTO(10L, 1L, 2L, 7L, true)));
+
+        tracker.markRead(1L, 10L, 5L);
+        tracker.markRead(1L, 10L, 7L);
+        tracker.markRead(1L, 10L, 6L);
+        tracker.flush();
+        tracker.flush();
+
+        ArgumentCaptor<Long[]> messageIds = ArgumentCaptor.forClass(Long[].class);
+        verify(conversationRepository, times(1)).markRead(any(), any(), messageIds.capture());
+        assertThat(messageIds.getValue()).containsExactly(7L);
+    }
+
+    @Test
+    void testWrittenMarkIsSentToBothParticipants() {
+        when(conversationRepository.markRead(any(), any(), any())).thenReturn(Flux.just(new ReadMarkDTO(10L, 1L, 2L, 7L, true)));
+        List<String> reader = new ArrayList<>();
+        List<String> other = new ArrayList<>();
+        Disposable readerSession = broadcaster.flux(1L).subscribe(reader::add);
+        Disposable otherSession = broadcaster.flux(2L).subscribe(other::add);
+
+        tracker.markRead(1L, 10L, Long.MAX_VALUE);
+        tracker.flush();
+
+        assertThat(other).singleElement().asString().contains("\"messageId\":7");
+        assertThat(reader).singleElement().asString().contains("\"messageId\":7");
+        readerSession.dispose();
+        otherSession.dispose();
+    }
+
+    @Test
+    void testAcknowledgementCoveredByWrittenMarkIsDropped() {
+        when(conversationRepository.markRead(any(), any(), any())).thenReturn(Flux.just(new ReadMarkDTO(10L, 1L, 2L, 7L, true)));
+
+        tracker.markRead(1L, 10L, 7L);
+        tracker.flush();
+        tracker.markRead(1L, 10L, 7L);
+        tracker.markRead(1L, 10L, 5L);
+        tracker.flush();
+
+        verify(conversationRepository, times(1)).markRead(any(), any(), any());
+    }
+
+    @Test
+    void testFailedWriteIsRetried() {
+        when(conversationRepository.markRead(any(), any(), any()))
+            .thenReturn(Flux.error(new IllegalStateException("down")))
+            .thenReturn(Flux.empty());
+
+        tracker.markRead(1L, 10L, 5L);
+        tracker.flush();
+        tracker.flush();
+
+        verify(conversationRepository, times(2)).markRead(any(), any(), any());
+    }
+
+    @Test
+    void testNothingIsWrittenWithoutMarks() {
+        tracker.flush();
+
+        verify(conversationRepository, never()).markRead(any(), any(), any());
+    }
+}
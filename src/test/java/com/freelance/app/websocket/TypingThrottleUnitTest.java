@@ -0,0 +1,37 @@
+package com.freelance.app.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.freelance.app.config.ApplicationProperties;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link TypingThrottle}.
+ */
+class TypingThrottleUnitTest {
+
+    private static TypingThrottle throttle(Duration window) {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getChat().setTypingThrottle(window);
+        return new TypingThrottle(properties);
+    }
+
+    @Test
+    void testRepeatedIndicatorsAreCoalesced() {
+        TypingThrottle throttle = throttle(Duration.ofMinutes(1));
+
+        assertThat(throttle.tryForward(1L, 2L)).isTrue();
+        assertThat(throttle.tryForward(1L, 2L)).isFalse();
+        assertThat(throttle.tryForward(1L, 3L)).isTrue();
+        assertThat(throttle.tryForward(2L, 1L)).isTrue();
+    }
+
+    @Test
+    void testIndicatorIsForwardedAgainAfterTheWindow() {
+        TypingThrottle throttle = throttle(Duration.ZERO);
+
+        assertThat(throttle.tryForward(1L, 2L)).isTrue();
+        assertThat(throttle.tryForward(1L, 2L)).isTrue();
+    }
+}